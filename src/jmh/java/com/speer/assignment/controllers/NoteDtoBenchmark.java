@@ -0,0 +1,87 @@
+package com.speer.assignment.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.speer.assignment.dto.NoteSummaryDto;
+import com.speer.assignment.entity.NoteSummary;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summary-to-DTO conversion and JSON encoding of a result page, the per-request CPU work of the
+ * list and search endpoints once Mongo has answered. Those pages carry {@link NoteSummary} rows
+ * whose snippet is cut to 200 characters by the query, so the note length does not enter into it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NoteDtoBenchmark {
+
+    @Param({"1", "20", "100"})
+    private int pageSize;
+
+    private static final int SNIPPET_LENGTH = 200;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<NoteSummary> summaries;
+    private List<NoteSummaryDto> dtos;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        summaries = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            NoteSummary summary = new NoteSummary();
+            summary.setId(new ObjectId().toHexString());
+            summary.setOwner(new ObjectId().toHexString());
+            summary.setTitle("Note " + i);
+            summary.setSnippet(text(random, SNIPPET_LENGTH));
+            summary.setVersion((long) i);
+            summaries.add(summary);
+        }
+        dtos = convert();
+    }
+
+    @Benchmark
+    public List<NoteSummaryDto> convert() {
+        List<NoteSummaryDto> result = new ArrayList<>(summaries.size());
+        for (NoteSummary summary : summaries) {
+            result.add(NoteController.convertToSummaryDto(summary));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(dtos);
+    }
+
+    @Benchmark
+    public byte[] convertAndSerialize() throws Exception {
+        return objectMapper.writeValueAsBytes(convert());
+    }
+
+    static String text(Random random, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        while (builder.length() < length) {
+            int wordLength = 2 + random.nextInt(8);
+            for (int i = 0; i < wordLength; i++) {
+                builder.append((char) ('a' + random.nextInt(26)));
+            }
+            builder.append(' ');
+        }
+        builder.setLength(length);
+        return builder.toString();
+    }
+}
@@ -0,0 +1,97 @@
+package com.speer.assignment.repository;
+
+import com.speer.assignment.entity.NoteContent;
+import org.bson.types.Binary;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost and savings of storing note content through {@link NoteContentConverter}. {@code store}
+ * reports the UTF-8 bytes written against the bytes actually stored, which is also what the
+ * note cache weighs; {@code loadText} and {@code loadSnippet} show what reading a compressed
+ * body costs in full and for a list snippet.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NoteContentBenchmark {
+    private static final String[] WORDS = {
+            "request", "user", "note", "shared", "updated", "cache", "miss", "timeout", "retry",
+            "session", "token", "expired", "index", "query", "page", "cursor", "export", "import"};
+
+    @Param({"4096", "16384", "65536", "262144"})
+    private int contentLength;
+
+    private final NoteContentConverter converter = new NoteContentConverter();
+    private String text;
+    private NoteContent stored;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Bytes {
+        public long utf8Bytes;
+        public long storedBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            utf8Bytes = 0;
+            storedBytes = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        ReflectionTestUtils.setField(converter, "thresholdBytes", 16384);
+        text = text(new Random(42), contentLength);
+        stored = converter.read(converter.toStored(text), null);
+    }
+
+    @Benchmark
+    public Object store(Bytes bytes) {
+        Object value = converter.toStored(text);
+        bytes.utf8Bytes += text.getBytes(StandardCharsets.UTF_8).length;
+        bytes.storedBytes += value instanceof Binary
+                ? ((Binary) value).length()
+                : ((String) value).getBytes(StandardCharsets.UTF_8).length;
+        return value;
+    }
+
+    @Benchmark
+    public String loadText() {
+        return stored.text();
+    }
+
+    @Benchmark
+    public String loadSnippet() {
+        return stored.prefix(NoteSummaries.SNIPPET_LENGTH);
+    }
+
+    /** Log-like lines from a small vocabulary, roughly what large pasted notes look like. */
+    private static String text(Random random, int length) {
+        StringBuilder builder = new StringBuilder(length + 64);
+        int line = 0;
+        while (builder.length() < length) {
+            builder.append("2023-05-").append(10 + random.nextInt(20)).append(' ')
+                    .append(random.nextInt(24)).append(':').append(random.nextInt(60)).append(" [")
+                    .append(random.nextBoolean() ? "INFO" : "WARN").append("] #").append(line++);
+            for (int i = 0, words = 4 + random.nextInt(8); i < words; i++) {
+                builder.append(' ').append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            builder.append(" id=").append(Long.toHexString(random.nextLong())).append('\n');
+        }
+        return builder.substring(0, length);
+    }
+}
@@ -0,0 +1,108 @@
+package com.speer.assignment.repository;
+
+import com.speer.assignment.entity.Note;
+import com.speer.assignment.entity.NoteSummary;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Cost of one "shared with me" page for a user with thousands of incoming shares, at the head of
+ * the list and deep into it. Both cases should stay flat as {@code shares} grows, since the keyset
+ * cursor seeks straight into the {@code {sharedWith: 1, _id: 1}} index instead of skipping rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class SharedNotesBenchmark {
+    private static final String TARGET = "popular";
+    private static final int USERS = 100;
+    private static final int OTHER_NOTES = 20_000;
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"1000", "10000"})
+    private int shares;
+
+    private EmbeddedNotesMongo mongo;
+    private NoteRepository noteRepository;
+    private String deepAfterId;
+
+    @Setup
+    public void setup() throws Exception {
+        mongo = EmbeddedNotesMongo.start("shared_benchmark");
+        noteRepository = mongo.noteRepository();
+        seed();
+    }
+
+    @TearDown
+    public void tearDown() {
+        mongo.close();
+    }
+
+    @Benchmark
+    public void firstPage(Blackhole blackhole) {
+        consume(null, blackhole);
+    }
+
+    @Benchmark
+    public void deepPage(Blackhole blackhole) {
+        consume(deepAfterId, blackhole);
+    }
+
+    private void consume(String afterId, Blackhole blackhole) {
+        try (Stream<NoteSummary> page = noteRepository.streamSharedWith(TARGET, afterId, PAGE_SIZE + 1)) {
+            page.forEach(blackhole::consume);
+        }
+    }
+
+    private void seed() {
+        Random random = new Random(42);
+        List<String> incoming = new ArrayList<>(shares);
+        List<Note> batch = new ArrayList<>();
+        int total = shares + OTHER_NOTES;
+        // Interleave the target's shares with unrelated notes so they are spread across the collection.
+        for (int i = 0; i < total; i++) {
+            boolean shared = random.nextInt(total - i) < shares - incoming.size();
+            Note note = new Note();
+            note.setId(new ObjectId().toHexString());
+            note.setOwner("user" + random.nextInt(USERS));
+            note.setTitle("note " + i);
+            note.setContent("content of note " + i);
+            if (shared) {
+                note.setSharedWith(Arrays.asList("user" + random.nextInt(USERS), TARGET));
+                incoming.add(note.getId());
+            } else if (random.nextInt(5) == 0) {
+                note.setSharedWith(Collections.singletonList("user" + random.nextInt(USERS)));
+            }
+            note.setVersion(0L);
+            batch.add(note);
+            if (batch.size() == 1_000) {
+                noteRepository.insertUnordered(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            noteRepository.insertUnordered(batch);
+        }
+        // A cursor ten pages short of the end, as a client paging through the whole list would hold.
+        deepAfterId = incoming.get(Math.max(0, incoming.size() - 10 * PAGE_SIZE - 1));
+    }
+}
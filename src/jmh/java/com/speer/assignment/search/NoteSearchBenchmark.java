@@ -0,0 +1,134 @@
+package com.speer.assignment.search;
+
+import com.speer.assignment.entity.Note;
+import com.speer.assignment.entity.NoteSummary;
+import com.speer.assignment.repository.EmbeddedNotesMongo;
+import com.speer.assignment.repository.NoteRepository;
+import com.speer.assignment.security.NoteAccessIndex;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end cost of one {@code searchNotes} page for each {@link NoteSearchEngine}, against an
+ * {@link EmbeddedNotesMongo} seeded with a fixed-seed corpus. Repository and engines are wired by
+ * hand rather than through a Spring context, so the benchmark measures the search path only.
+ * Seeding Mongo bounds the corpus to what one fork can load; {@link TrigramIndexBenchmark}
+ * measures the index alone at a million notes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class NoteSearchBenchmark {
+    private static final int USERS = 100;
+    private static final int VOCABULARY = 5_000;
+    private static final int WORDS_PER_NOTE = 60;
+    private static final int QUERIES = 256;
+
+    @Param({"text", "trigram"})
+    private String engine;
+
+    @Param({"10000"})
+    private int notes;
+
+    private EmbeddedNotesMongo mongo;
+    private NoteSearchEngine searchEngine;
+    private final Pageable page = PageRequest.of(0, 20);
+    private String[] queries;
+    private String[] users;
+    private int next;
+
+    @Setup
+    public void setup() throws Exception {
+        mongo = EmbeddedNotesMongo.start("notes_benchmark");
+        NoteRepository noteRepository = mongo.noteRepository();
+        seed(noteRepository);
+
+        if ("trigram".equals(engine)) {
+            NoteAccessIndex accessIndex = new NoteAccessIndex(noteRepository);
+            accessIndex.rebuild();
+            TrigramSearchEngine trigram = new TrigramSearchEngine(noteRepository, accessIndex, mongo.noteBodyStore());
+            trigram.rebuild();
+            searchEngine = trigram;
+        } else {
+            searchEngine = new TextIndexSearchEngine(noteRepository);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        mongo.close();
+    }
+
+    @Benchmark
+    public List<NoteSummary> search() {
+        int i = next++ & (QUERIES - 1);
+        return searchEngine.search(users[i], queries[i], page);
+    }
+
+    private void seed(NoteRepository noteRepository) {
+        Random random = new Random(42);
+        String[] vocabulary = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) {
+            vocabulary[i] = word(random);
+        }
+
+        List<Note> batch = new ArrayList<>();
+        for (int i = 0; i < notes; i++) {
+            Note note = new Note();
+            note.setId(new ObjectId().toHexString());
+            note.setOwner("user" + (i % USERS));
+            note.setTitle(vocabulary[random.nextInt(VOCABULARY)] + " " + vocabulary[random.nextInt(VOCABULARY)]);
+            StringBuilder content = new StringBuilder();
+            for (int w = 0; w < WORDS_PER_NOTE; w++) {
+                content.append(vocabulary[random.nextInt(VOCABULARY)]).append(' ');
+            }
+            note.setContent(content.toString());
+            if (random.nextInt(10) == 0) {
+                note.setSharedWith(Collections.singletonList("user" + random.nextInt(USERS)));
+            }
+            note.setVersion(0L);
+            batch.add(note);
+            if (batch.size() == 1_000) {
+                noteRepository.insertUnordered(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            noteRepository.insertUnordered(batch);
+        }
+
+        queries = new String[QUERIES];
+        users = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = vocabulary[random.nextInt(VOCABULARY)];
+            users[i] = "user" + random.nextInt(USERS);
+        }
+    }
+
+    private static String word(Random random) {
+        int length = 4 + random.nextInt(6);
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(26)));
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,81 @@
+package com.speer.assignment.search;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * One page of {@link TrigramIndex#search} at up to a million notes, without Mongo, so the index
+ * can be measured at a size {@link NoteSearchBenchmark} cannot seed. The filter stands in for
+ * {@code NoteAccessIndex.canRead} with one owner per note and no shares.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class TrigramIndexBenchmark {
+    private static final int USERS = 100;
+    private static final int VOCABULARY = 5_000;
+    private static final int WORDS_PER_NOTE = 20;
+    private static final int QUERIES = 256;
+
+    @Param({"100000", "1000000"})
+    private int notes;
+
+    private final TrigramIndex index = new TrigramIndex();
+    private String[] queries;
+    private Predicate<String>[] filters;
+    private int next;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        Random random = new Random(42);
+        String[] vocabulary = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) {
+            vocabulary[i] = word(random);
+        }
+
+        for (int i = 0; i < notes; i++) {
+            StringBuilder content = new StringBuilder();
+            for (int w = 0; w < WORDS_PER_NOTE; w++) {
+                content.append(vocabulary[random.nextInt(VOCABULARY)]).append(' ');
+            }
+            index.put(Integer.toString(i), vocabulary[random.nextInt(VOCABULARY)], content.toString());
+        }
+
+        queries = new String[QUERIES];
+        filters = new Predicate[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = vocabulary[random.nextInt(VOCABULARY)];
+            int user = random.nextInt(USERS);
+            filters[i] = id -> Integer.parseInt(id) % USERS == user;
+        }
+    }
+
+    @Benchmark
+    public List<String> search() {
+        int i = next++ & (QUERIES - 1);
+        return index.search(queries[i], filters[i], 0, 20);
+    }
+
+    private static String word(Random random) {
+        int length = 4 + random.nextInt(6);
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(26)));
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,58 @@
+package com.speer.assignment.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue and verification cost. {@code authenticateCached} is the steady-state cost of a
+ * request carrying a token that has already been seen; {@code parseToken} is a cache miss.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtTokenProviderBenchmark {
+    private JwtTokenProvider tokenProvider;
+    private JwtAuthenticator authenticator;
+    private UserPrincipal principal;
+    private String token;
+
+    @Setup
+    public void setup() {
+        tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret",
+                "benchmark-secret-that-is-long-enough-for-hs512-signatures-0123456789abcdef");
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpirationInMs", 3_600_000);
+        tokenProvider.init();
+
+        principal = new UserPrincipal("64a0c0ffee0000000000000a", "alice", null, Collections.emptyList());
+        token = tokenProvider.generateToken(principal);
+        authenticator = new JwtAuthenticator(tokenProvider, 10_000, new SimpleMeterRegistry());
+        authenticator.authenticate(token);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return tokenProvider.generateToken(principal);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return tokenProvider.validateToken(token);
+    }
+
+    @Benchmark
+    public Authentication authenticateCached() {
+        return authenticator.authenticate(token);
+    }
+}
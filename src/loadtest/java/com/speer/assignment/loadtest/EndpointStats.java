@@ -0,0 +1,37 @@
+package com.speer.assignment.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies of one endpoint, in microseconds. Response time is measured from the moment the
+ * schedule said the request should start, so time spent queued behind a slow server is counted
+ * rather than silently omitted. Service time runs from the actual send, for comparison.
+ */
+final class EndpointStats {
+    private final Recorder responseTime = new Recorder(3);
+    private final Recorder serviceTime = new Recorder(3);
+    private final LongAdder errors = new LongAdder();
+
+    void record(long intendedStartNanos, long sentNanos, long completedNanos, boolean success) {
+        if (!success) {
+            errors.increment();
+        }
+        responseTime.recordValue(Math.max(1, (completedNanos - intendedStartNanos) / 1_000));
+        serviceTime.recordValue(Math.max(1, (completedNanos - sentNanos) / 1_000));
+    }
+
+    Histogram responseTimes() {
+        return responseTime.getIntervalHistogram();
+    }
+
+    Histogram serviceTimes() {
+        return serviceTime.getIntervalHistogram();
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+}
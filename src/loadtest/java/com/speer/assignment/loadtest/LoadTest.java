@@ -0,0 +1,188 @@
+package com.speer.assignment.loadtest;
+
+import com.speer.assignment.AssignmentApplication;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Boots the application against embedded Mongo, seeds users and notes through the API, then
+ * issues a weighted mix of requests at a fixed arrival rate for a warmup and a measured period.
+ * <p>
+ * The schedule is open-loop: request {@code i} is due at {@code start + i / rate} whether or not
+ * earlier requests have finished, and its latency is measured from that due time. A stalled
+ * server therefore shows up as a latency spike for every request it delayed, instead of a
+ * single slow sample (coordinated omission).
+ * <p>
+ * Prints per-endpoint throughput and percentiles, and writes full HdrHistogram percentile
+ * distributions ({@code .hgrm}) to the output directory.
+ */
+public final class LoadTest {
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+
+        List<String> applicationArgs = new ArrayList<>(options.applicationArgs);
+        addDefault(applicationArgs, "server.port", "0");
+        addDefault(applicationArgs, "management.server.port", "0");
+        addDefault(applicationArgs, "app.jwtExpirationInMs", "86400000");
+        // Every simulated user shares one address; pass --app.rateLimit.enabled=true to measure the limiter.
+        addDefault(applicationArgs, "app.rateLimit.enabled", "false");
+        ConfigurableApplicationContext context =
+                SpringApplication.run(AssignmentApplication.class, applicationArgs.toArray(new String[0]));
+
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(options.clientThreads);
+        try {
+            HttpClient http = HttpClient.newBuilder()
+                    .executor(clientExecutor)
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+
+            Workload workload = new Workload(baseUrl, http, options.users, options.seed);
+            long seedStart = System.nanoTime();
+            workload.seed(options.notes);
+            System.out.printf("Seeded %d users and %d notes in %.1f s%n", options.users, options.notes,
+                    (System.nanoTime() - seedStart) / 1e9);
+
+            Map<Operation, EndpointStats> stats = run(options, http, workload);
+            report(options, stats);
+        } finally {
+            clientExecutor.shutdownNow();
+            context.close();
+        }
+    }
+
+    private static Map<Operation, EndpointStats> run(LoadTestOptions options, HttpClient http, Workload workload)
+            throws InterruptedException {
+        Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : options.mix.keySet()) {
+            stats.put(operation, new EndpointStats());
+        }
+        Operation[] wheel = weightedWheel(options.mix);
+        Random random = new Random(options.seed + 1);
+        AtomicInteger inFlight = new AtomicInteger();
+
+        long intervalNanos = (long) (1e9 / options.rate);
+        long start = System.nanoTime();
+        long measureStart = start + TimeUnit.SECONDS.toNanos(options.warmupSeconds);
+        long end = measureStart + TimeUnit.SECONDS.toNanos(options.durationSeconds);
+
+        for (long i = 0; ; i++) {
+            long intendedStart = start + i * intervalNanos;
+            if (intendedStart >= end) {
+                break;
+            }
+            long wait;
+            while ((wait = intendedStart - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            Operation operation = wheel[random.nextInt(wheel.length)];
+            Workload.Call call = workload.next(operation);
+            EndpointStats endpoint = intendedStart >= measureStart ? stats.get(operation) : null;
+
+            inFlight.incrementAndGet();
+            long sent = System.nanoTime();
+            http.sendAsync(call.request.build(), HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, error) -> {
+                        long completed = System.nanoTime();
+                        boolean success = error == null && response.statusCode() / 100 == 2;
+                        try {
+                            if (endpoint != null) {
+                                endpoint.record(intendedStart, sent, completed, success);
+                            }
+                        } finally {
+                            inFlight.decrementAndGet();
+                        }
+                    });
+        }
+
+        long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        return stats;
+    }
+
+    private static void report(LoadTestOptions options, Map<Operation, EndpointStats> stats) throws Exception {
+        Files.createDirectories(options.outputDirectory);
+        System.out.printf("%nTarget rate %.0f req/s, %d s measured after %d s warmup. Latencies in ms, "
+                        + "measured from the scheduled start (service time from the actual send in brackets).%n%n",
+                options.rate, options.durationSeconds, options.warmupSeconds);
+        System.out.printf("%-28s %8s %7s %8s", "endpoint", "count", "errors", "req/s");
+        for (double percentile : PERCENTILES) {
+            System.out.printf(" %17s", "p" + formatPercentile(percentile));
+        }
+        System.out.printf(" %17s%n", "max");
+
+        for (Map.Entry<Operation, EndpointStats> entry : stats.entrySet()) {
+            Operation operation = entry.getKey();
+            Histogram responseTimes = entry.getValue().responseTimes();
+            Histogram serviceTimes = entry.getValue().serviceTimes();
+
+            System.out.printf("%-28s %8d %7d %8.1f", operation.endpoint, responseTimes.getTotalCount(),
+                    entry.getValue().errors(), responseTimes.getTotalCount() / (double) options.durationSeconds);
+            for (double percentile : PERCENTILES) {
+                System.out.printf(" %17s", millis(responseTimes.getValueAtPercentile(percentile),
+                        serviceTimes.getValueAtPercentile(percentile)));
+            }
+            System.out.printf(" %17s%n", millis(responseTimes.getMaxValue(), serviceTimes.getMaxValue()));
+
+            String name = operation.name().toLowerCase();
+            try (PrintStream out = new PrintStream(Files.newOutputStream(options.outputDirectory.resolve(name + ".hgrm")))) {
+                responseTimes.outputPercentileDistribution(out, 1000.0);
+            }
+            try (PrintStream out = new PrintStream(Files.newOutputStream(options.outputDirectory.resolve(name + "-service.hgrm")))) {
+                serviceTimes.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        System.out.printf("%nHistograms written to %s%n", options.outputDirectory.toAbsolutePath());
+    }
+
+    private static Operation[] weightedWheel(Map<Operation, Integer> mix) {
+        List<Operation> wheel = new ArrayList<>();
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            for (int i = 0; i < entry.getValue(); i++) {
+                wheel.add(entry.getKey());
+            }
+        }
+        return wheel.toArray(new Operation[0]);
+    }
+
+    private static void addDefault(List<String> args, String name, String value) {
+        String prefix = "--" + name + "=";
+        if (args.stream().noneMatch(arg -> arg.startsWith(prefix))) {
+            args.add(prefix + value);
+        }
+    }
+
+    private static String millis(long responseMicros, long serviceMicros) {
+        return String.format("%.2f (%.2f)", responseMicros / 1000.0, serviceMicros / 1000.0);
+    }
+
+    private static String formatPercentile(double percentile) {
+        return percentile == Math.rint(percentile) ? Long.toString((long) percentile) : Double.toString(percentile);
+    }
+}
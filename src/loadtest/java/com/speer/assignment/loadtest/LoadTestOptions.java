@@ -0,0 +1,88 @@
+package com.speer.assignment.loadtest;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command-line options of {@link LoadTest}. Harness options are given as {@code --name=value};
+ * every other argument is passed to the application unchanged, e.g.
+ * {@code --spring.profiles.active=reactive}.
+ */
+final class LoadTestOptions {
+    int users = 50;
+    int notes = 5_000;
+    double rate = 200;
+    int warmupSeconds = 10;
+    int durationSeconds = 60;
+    long seed = 42;
+    int clientThreads = 8;
+    Path outputDirectory = Paths.get("build", "reports", "loadtest");
+    Map<Operation, Integer> mix = parseMix("signup=2,login=8,create=15,get=35,update=15,share=5,shared=5,search=15");
+    final List<String> applicationArgs = new ArrayList<>();
+
+    static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            String name = arg.startsWith("--") && eq > 2 ? arg.substring(2, eq) : "";
+            String value = eq > 0 ? arg.substring(eq + 1) : "";
+            switch (name) {
+                case "users":
+                    options.users = Integer.parseInt(value);
+                    break;
+                case "notes":
+                    options.notes = Integer.parseInt(value);
+                    break;
+                case "rate":
+                    options.rate = Double.parseDouble(value);
+                    break;
+                case "warmup":
+                    options.warmupSeconds = Integer.parseInt(value);
+                    break;
+                case "duration":
+                    options.durationSeconds = Integer.parseInt(value);
+                    break;
+                case "seed":
+                    options.seed = Long.parseLong(value);
+                    break;
+                case "clientThreads":
+                    options.clientThreads = Integer.parseInt(value);
+                    break;
+                case "out":
+                    options.outputDirectory = Paths.get(value);
+                    break;
+                case "mix":
+                    options.mix = parseMix(value);
+                    break;
+                default:
+                    options.applicationArgs.add(arg);
+            }
+        }
+        if (options.users < 2 || options.notes < 1 || options.rate <= 0) {
+            throw new IllegalArgumentException("users must be at least 2, notes at least 1 and rate positive");
+        }
+        return options;
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.valueOf(parts[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("The mix must give at least one operation a positive weight");
+        }
+        return weights;
+    }
+}
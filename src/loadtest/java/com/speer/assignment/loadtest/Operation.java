@@ -0,0 +1,21 @@
+package com.speer.assignment.loadtest;
+
+/**
+ * The request types the harness can issue; each is reported as its own endpoint.
+ */
+enum Operation {
+    SIGNUP("POST /api/auth/signup"),
+    LOGIN("POST /api/auth/login"),
+    CREATE("POST /api/notes"),
+    GET("GET /api/notes/{id}"),
+    UPDATE("PATCH /api/notes/{id}"),
+    SHARE("POST /api/notes/{id}/share"),
+    SHARED("GET /api/notes/shared"),
+    SEARCH("GET /api/notes/search");
+
+    final String endpoint;
+
+    Operation(String endpoint) {
+        this.endpoint = endpoint;
+    }
+}
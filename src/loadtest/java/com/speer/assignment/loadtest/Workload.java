@@ -0,0 +1,221 @@
+package com.speer.assignment.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * Seeded users, their tokens and the notes they own, plus the requests built from them. All
+ * random choices come from one seeded {@link Random} on the scheduling thread. Reads, updates and
+ * shares target the notes created by {@link #seed}, held in creation order. Notes created during
+ * the run are never targeted, because their ids arrive at times that depend on the server. So two
+ * runs with the same options issue the same request sequence against the same seeded notes.
+ */
+final class Workload {
+    private static final String PASSWORD = "load-test-password";
+    private static final int VOCABULARY = 2_000;
+    private static final int SEED_CONCURRENCY = 32;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final String baseUrl;
+    private final HttpClient http;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Random random;
+    private final String[] vocabulary;
+    private final String[] usernames;
+    private final String[] tokens;
+    private SeededNote[] notes = new SeededNote[0];
+    private final AtomicInteger signups = new AtomicInteger();
+
+    Workload(String baseUrl, HttpClient http, int users, long seed) {
+        this.baseUrl = baseUrl;
+        this.http = http;
+        this.random = new Random(seed);
+        this.vocabulary = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) {
+            vocabulary[i] = word();
+        }
+        this.usernames = new String[users];
+        this.tokens = new String[users];
+        for (int i = 0; i < users; i++) {
+            usernames[i] = "lt-user-" + i;
+        }
+    }
+
+    /**
+     * Signs up and logs in every user, then creates {@code noteCount} notes spread evenly across
+     * them. Runs through the public API with bounded concurrency.
+     */
+    void seed(int noteCount) throws Exception {
+        runAll(usernames.length, i -> post("/api/auth/signup", null, credentials(usernames[i])));
+        runAll(usernames.length, i -> post("/api/auth/login", null, credentials(usernames[i]))
+                .thenAccept(body -> tokens[i] = read(body).get("token").asText()));
+
+        String[] titles = new String[noteCount];
+        String[] contents = new String[noteCount];
+        for (int i = 0; i < noteCount; i++) {
+            titles[i] = text(3);
+            contents[i] = text(40);
+        }
+        // Each response fills its own slot, so the order does not depend on completion order.
+        SeededNote[] seeded = new SeededNote[noteCount];
+        runAll(noteCount, i -> {
+            int owner = i % usernames.length;
+            return post("/api/notes", tokens[owner], note(titles[i], contents[i]))
+                    .thenAccept(body -> seeded[i] = new SeededNote(read(body).get("id").asText(), owner));
+        });
+        notes = seeded;
+    }
+
+    Call next(Operation operation) {
+        switch (operation) {
+            case SIGNUP:
+                return new Call(request("/api/auth/signup", null)
+                        .POST(json(credentials("lt-signup-" + signups.incrementAndGet()))));
+            case LOGIN:
+                return new Call(request("/api/auth/login", null)
+                        .POST(json(credentials(usernames[random.nextInt(usernames.length)]))));
+            case CREATE: {
+                int owner = random.nextInt(usernames.length);
+                return new Call(request("/api/notes", tokens[owner]).POST(json(note(text(3), text(40)))));
+            }
+            case GET: {
+                SeededNote note = randomNote();
+                return new Call(request("/api/notes/" + note.id, tokens[note.owner]).GET());
+            }
+            case UPDATE: {
+                SeededNote note = randomNote();
+                Map<String, String> body = Map.of("content", text(40));
+                return new Call(request("/api/notes/" + note.id, tokens[note.owner])
+                        .method("PATCH", json(body)));
+            }
+            case SHARE: {
+                SeededNote note = randomNote();
+                String sharedWith = usernames[(note.owner + 1 + random.nextInt(usernames.length - 1)) % usernames.length];
+                return new Call(request("/api/notes/" + note.id + "/share", tokens[note.owner])
+                        .POST(json(Map.of("sharedWith", sharedWith))));
+            }
+            case SHARED:
+                return new Call(request("/api/notes/shared", tokens[random.nextInt(usernames.length)]).GET());
+            case SEARCH: {
+                String query = URLEncoder.encode(vocabulary[random.nextInt(VOCABULARY)], StandardCharsets.UTF_8);
+                return new Call(request("/api/notes/search?q=" + query, tokens[random.nextInt(usernames.length)]).GET());
+            }
+            default:
+                throw new IllegalArgumentException(operation.name());
+        }
+    }
+
+    private void runAll(int count, IntFunction<CompletableFuture<?>> task) throws Exception {
+        Semaphore permits = new Semaphore(SEED_CONCURRENCY);
+        List<CompletableFuture<?>> pending = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            permits.acquire();
+            pending.add(task.apply(i).whenComplete((result, error) -> permits.release()));
+        }
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).get();
+    }
+
+    private CompletableFuture<String> post(String path, String token, Object body) {
+        return http.sendAsync(request(path, token).POST(json(body)).build(), HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    if (response.statusCode() / 100 != 2) {
+                        throw new IllegalStateException("Seeding " + path + " failed with " + response.statusCode());
+                    }
+                    return response.body();
+                });
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json");
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private HttpRequest.BodyPublisher json(Object body) {
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private JsonNode read(String body) {
+        try {
+            return objectMapper.readTree(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Map<String, String> credentials(String username) {
+        return Map.of("username", username, "password", PASSWORD);
+    }
+
+    private static Map<String, String> note(String title, String content) {
+        return Map.of("title", title, "content", content);
+    }
+
+    private SeededNote randomNote() {
+        return notes[random.nextInt(notes.length)];
+    }
+
+    private String text(int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(vocabulary[random.nextInt(VOCABULARY)]);
+        }
+        return text.toString();
+    }
+
+    private String word() {
+        int length = 4 + random.nextInt(6);
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(26)));
+        }
+        return word.toString();
+    }
+
+    /** A request ready to send. */
+    static final class Call {
+        final HttpRequest.Builder request;
+
+        Call(HttpRequest.Builder request) {
+            this.request = request;
+        }
+    }
+
+    private static final class SeededNote {
+        private final String id;
+        private final int owner;
+
+        private SeededNote(String id, int owner) {
+            this.id = id;
+            this.owner = owner;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.speer.assignment.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.speer.assignment.entity.Note;
+import com.speer.assignment.repository.NoteRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Read-through cache in front of {@link NoteRepository#findById}. It is bounded by the approximate
+ * heap footprint of the cached notes, and Caffeine evicts by W-TinyLFU, so a burst of one-off
+ * reads cannot push out the popular notes. Missing notes are not cached.
+ * <p>
+ * Cached instances are shared between requests and must not be modified. Write paths load the
+ * note from the repository and call {@link #put} or {@link #invalidate} afterwards. Hit, miss
+ * and eviction counts are published as {@code cache.*} metrics tagged {@code cache=notes}.
+ */
+@Component
+public class NoteCache {
+    private static final int ENTRY_OVERHEAD_BYTES = 128;
+
+    private final NoteRepository noteRepository;
+    private final Cache<String, Note> cache;
+
+    public NoteCache(NoteRepository noteRepository,
+                     MeterRegistry meterRegistry,
+                     @Value("${app.cache.notes.maximumWeightBytes:67108864}") long maximumWeightBytes) {
+        this.noteRepository = noteRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumWeightBytes)
+                .weigher((String id, Note note) -> weigh(note))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "notes");
+    }
+
+    public Optional<Note> findById(String id) {
+        return Optional.ofNullable(cache.get(id, key -> noteRepository.findById(key).orElse(null)));
+    }
+
+    /** The cached note, without loading it on a miss. */
+    public Optional<Note> getIfPresent(String id) {
+        return Optional.ofNullable(cache.getIfPresent(id));
+    }
+
+    public void put(Note note) {
+        cache.put(note.getId(), note);
+    }
+
+    public void invalidate(String id) {
+        cache.invalidate(id);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private static int weigh(Note note) {
+        long chars = length(note.getId()) + length(note.getOwner()) + length(note.getTitle());
+        if (note.getSharedWith() != null) {
+            for (String userId : note.getSharedWith()) {
+                chars += length(userId);
+            }
+        }
+        return (int) Math.min(Integer.MAX_VALUE, ENTRY_OVERHEAD_BYTES + chars * 2 + note.contentFootprint());
+    }
+
+    private static long length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
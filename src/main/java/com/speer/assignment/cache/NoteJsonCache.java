@@ -0,0 +1,128 @@
+package com.speer.assignment.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.speer.assignment.entity.Note;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoded JSON responses for single notes, keyed by note id and valid for one version. A hit
+ * hands out the stored bytes, so serving an unchanged note costs no DTO conversion and no
+ * Jackson work. Bodies of at least {@code app.cache.noteJson.gzipMinBytes} are also kept gzipped
+ * once a client has asked for gzip.
+ * <p>
+ * Entries for an older version are never served, so a missed invalidation costs one re-encode
+ * rather than a stale response. Notes without a version are encoded on every call. Hit, miss and
+ * eviction counts are published as {@code cache.*} metrics tagged {@code cache=noteJson}.
+ */
+@Component
+public class NoteJsonCache {
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+    private final ObjectMapper objectMapper;
+    private final Cache<String, Encoded> cache;
+    private final int gzipMinBytes;
+
+    public NoteJsonCache(ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.cache.noteJson.maximumWeightBytes:33554432}") long maximumWeightBytes,
+                         @Value("${app.cache.noteJson.gzipMinBytes:1024}") int gzipMinBytes) {
+        this.objectMapper = objectMapper;
+        this.gzipMinBytes = gzipMinBytes;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumWeightBytes)
+                .weigher((String id, Encoded encoded) -> encoded.weight())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "noteJson");
+    }
+
+    /**
+     * The JSON encoding of {@code toDto.apply(note)}, from the cache when it holds this version.
+     */
+    public Encoded get(Note note, Function<Note, ?> toDto) {
+        if (note.getVersion() == null) {
+            return encode(note, toDto);
+        }
+        Encoded cached = cache.getIfPresent(note.getId());
+        if (cached != null && Objects.equals(cached.version, note.getVersion())) {
+            return cached;
+        }
+        Encoded encoded = encode(note, toDto);
+        cache.put(note.getId(), encoded);
+        return encoded;
+    }
+
+    public void invalidate(String id) {
+        cache.invalidate(id);
+    }
+
+    private Encoded encode(Note note, Function<Note, ?> toDto) {
+        try {
+            return new Encoded(note.getVersion(), objectMapper.writeValueAsBytes(toDto.apply(note)),
+                    gzipMinBytes);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode note " + note.getId(), e);
+        }
+    }
+
+    /** One encoded response. The arrays are shared and must not be modified. */
+    public static final class Encoded {
+        private final Long version;
+        private final byte[] json;
+        private final boolean compressible;
+        private volatile byte[] gzip;
+
+        Encoded(Long version, byte[] json, int gzipMinBytes) {
+            this.version = version;
+            this.json = json;
+            this.compressible = json.length >= gzipMinBytes;
+        }
+
+        public byte[] json() {
+            return json;
+        }
+
+        /** Whether the body is large enough to be worth sending gzipped. */
+        public boolean compressible() {
+            return compressible;
+        }
+
+        /** The gzipped body, compressed on first use. Two racing callers may both compress. */
+        public byte[] gzip() {
+            byte[] compressed = gzip;
+            if (compressed == null) {
+                compressed = compress(json);
+                gzip = compressed;
+            }
+            return compressed;
+        }
+
+        private int weight() {
+            // Compressed bytes are added lazily and are not re-weighed; they are much smaller than the JSON.
+            return ENTRY_OVERHEAD_BYTES + json.length;
+        }
+
+        private static byte[] compress(byte[] bytes) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 32);
+            try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+                gzipOut.write(bytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return out.toByteArray();
+        }
+    }
+}
@@ -2,14 +2,22 @@ package com.speer.assignment.controllers;
 
 import com.speer.assignment.dto.LoginRequest;
 import com.speer.assignment.dto.LoginResponse;
+import com.speer.assignment.dto.RefreshTokenRequest;
 import com.speer.assignment.dto.SignupRequest;
 import com.speer.assignment.service.AuthService;
 import lombok.AllArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import javax.validation.Valid;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * Refresh and logout are blocking Mongo calls, so they return a {@link Mono} on a worker thread;
+ * under the {@code reactive} profile these controllers run on the event loop.
+ */
 @RestController
 @RequestMapping("/api/auth")
 @AllArgsConstructor
@@ -18,15 +26,27 @@ public class AuthController {
     private final AuthService authService;
 
     @PostMapping("/signup")
-    public ResponseEntity<Void> signup(@Valid @RequestBody SignupRequest signupRequest) {
-        authService.signup(signupRequest);
-        return ResponseEntity.ok().build();
+    public CompletableFuture<ResponseEntity<Void>> signup(@Valid @RequestBody SignupRequest signupRequest) {
+        return authService.signup(signupRequest).thenApply(user -> ResponseEntity.ok().<Void>build());
     }
 
     @PostMapping("/login")
-    public ResponseEntity<LoginResponse> login(@Valid @RequestBody LoginRequest loginRequest) {
-        String token = authService.login(loginRequest);
-        return ResponseEntity.ok(new LoginResponse(token));
+    public CompletableFuture<ResponseEntity<LoginResponse>> login(@Valid @RequestBody LoginRequest loginRequest) {
+        return authService.login(loginRequest).thenApply(ResponseEntity::ok);
+    }
+
+    @PostMapping("/refresh")
+    public Mono<ResponseEntity<LoginResponse>> refresh(@Valid @RequestBody RefreshTokenRequest refreshTokenRequest) {
+        return Mono.fromCallable(() -> ResponseEntity.ok(authService.refresh(refreshTokenRequest)))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @PostMapping("/logout")
+    public Mono<ResponseEntity<Void>> logout(@Valid @RequestBody RefreshTokenRequest refreshTokenRequest) {
+        return Mono.fromCallable(() -> {
+            authService.logout(refreshTokenRequest);
+            return ResponseEntity.noContent().<Void>build();
+        }).subscribeOn(Schedulers.boundedElastic());
     }
 
 }
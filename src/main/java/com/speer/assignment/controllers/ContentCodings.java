@@ -0,0 +1,52 @@
+package com.speer.assignment.controllers;
+
+import java.util.Locale;
+
+/**
+ * Reads {@code Accept-Encoding} as RFC 7231 defines it: a coding is acceptable unless its
+ * quality value is zero, and {@code *} stands for any coding not listed by name. A substring
+ * check would take {@code gzip;q=0}, which refuses gzip, as acceptance.
+ */
+final class ContentCodings {
+
+    private ContentCodings() {
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double any = null;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = Math.max(gzip == null ? 0 : gzip, quality(parts));
+            } else if (coding.equals("*")) {
+                any = quality(parts);
+            }
+        }
+        if (gzip != null) {
+            return gzip > 0;
+        }
+        return any != null && any > 0;
+    }
+
+    /** The {@code q} parameter of one element, 1 when absent and 0 when malformed. */
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.length() > 2 && Character.toLowerCase(parameter.charAt(0)) == 'q'
+                    && parameter.charAt(1) == '=') {
+                try {
+                    double q = Double.parseDouble(parameter.substring(2).trim());
+                    return q >= 0 && q <= 1 ? q : 0;
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -1,113 +1,512 @@
 package com.speer.assignment.controllers;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteResult;
+import com.speer.assignment.cache.NoteCache;
+import com.speer.assignment.cache.NoteJsonCache;
+import com.speer.assignment.dto.BulkShareDto;
+import com.speer.assignment.dto.BulkShareResult;
+import com.speer.assignment.dto.ImportResult;
 import com.speer.assignment.dto.NoteDto;
+import com.speer.assignment.dto.NoteDtos;
+import com.speer.assignment.dto.NoteSummaryDto;
 import com.speer.assignment.dto.ShareNoteDto;
 import com.speer.assignment.entity.Note;
+import com.speer.assignment.entity.NoteSummary;
+import com.speer.assignment.repository.NoteBodyStore;
 import com.speer.assignment.repository.NoteRepository;
+import com.speer.assignment.search.NoteSearchEngine;
+import com.speer.assignment.security.NoteAccessIndex;
+import com.speer.assignment.security.UserPrincipal;
+import com.speer.assignment.service.NoteExportService;
+import com.speer.assignment.service.NoteImportService;
+import com.speer.assignment.service.UserService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.gridfs.GridFsResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 
 @RestController
 @RequestMapping("/api/notes")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class NoteController {
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final NoteRepository noteRepository;
+    private final NoteAccessIndex noteAccessIndex;
+    private final NoteCache noteCache;
+    private final NoteJsonCache noteJsonCache;
+    private final NoteSearchEngine noteSearchEngine;
+    private final NoteImportService noteImportService;
+    private final NoteExportService noteExportService;
+    private final NoteBodyStore noteBodyStore;
+    private final UserService userService;
+    private final ObjectMapper objectMapper;
 
-    public NoteController(NoteRepository noteRepository) {
+    public NoteController(NoteRepository noteRepository, NoteAccessIndex noteAccessIndex, NoteCache noteCache,
+                          NoteJsonCache noteJsonCache, NoteSearchEngine noteSearchEngine, NoteImportService noteImportService,
+                          NoteExportService noteExportService, NoteBodyStore noteBodyStore, UserService userService,
+                          ObjectMapper objectMapper) {
         this.noteRepository = noteRepository;
+        this.noteAccessIndex = noteAccessIndex;
+        this.noteCache = noteCache;
+        this.noteJsonCache = noteJsonCache;
+        this.noteSearchEngine = noteSearchEngine;
+        this.noteImportService = noteImportService;
+        this.noteExportService = noteExportService;
+        this.noteBodyStore = noteBodyStore;
+        this.userService = userService;
+        this.objectMapper = objectMapper;
     }
 
+    /**
+     * Writes one page of the caller's own and shared notes as {@code {"notes": [...], "nextCursor": ...}}.
+     * Each note is a summary (id, owner, title, content snippet); the full content is only served
+     * by {@code GET /{id}}. One extra row is read to decide whether another page exists, and
+     * {@code nextCursor} is null on the last page. The page is tagged from the ids and versions on
+     * it, so a matching {@code If-None-Match} gets a 304 before anything is serialized.
+     */
     @GetMapping
-    public List<NoteDto> getAllNotes() {
-        return Collections.emptyList();
+    public void getAllNotes(@RequestParam(value = "cursor", required = false) String cursor,
+                            @RequestParam(value = "size", defaultValue = "20") int size,
+                            Principal principal,
+                            WebRequest webRequest,
+                            HttpServletResponse response) throws IOException {
+        String userId = currentUserId(principal);
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        String afterId = NoteCursor.decode(cursor);
+
+        writePage(noteRepository.streamVisibleTo(userId, afterId, pageSize + 1), pageSize, webRequest, response);
+    }
+
+    /**
+     * Writes one page of the notes other users shared with the caller, in the same shape and with
+     * the same cursor and ETag handling as {@code GET /api/notes}. Pages are read from the
+     * {@code {sharedWith: 1, _id: 1}} index, so a deep page costs the same as the first.
+     */
+    @GetMapping("/shared")
+    public void getSharedNotes(@RequestParam(value = "cursor", required = false) String cursor,
+                               @RequestParam(value = "size", defaultValue = "20") int size,
+                               Principal principal,
+                               WebRequest webRequest,
+                               HttpServletResponse response) throws IOException {
+        String userId = currentUserId(principal);
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        String afterId = NoteCursor.decode(cursor);
+
+        writePage(noteRepository.streamSharedWith(userId, afterId, pageSize + 1), pageSize, webRequest, response);
+    }
+
+    private void writePage(Stream<NoteSummary> rows, int pageSize, WebRequest webRequest,
+                           HttpServletResponse response) throws IOException {
+        List<NoteSummary> notes = new ArrayList<>(pageSize + 1);
+        try (rows) {
+            rows.forEach(notes::add);
+        }
+        boolean hasMore = notes.size() > pageSize;
+        if (hasMore) {
+            notes.remove(pageSize);
+        }
+        if (webRequest.checkNotModified(NoteETags.forSummaries(notes, hasMore))) {
+            return;
+        }
+
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        try (JsonGenerator generator = objectMapper.createGenerator(response.getOutputStream())) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("notes");
+            for (NoteSummary note : notes) {
+                generator.writeObject(convertToSummaryDto(note));
+            }
+            generator.writeEndArray();
+            String nextCursor = hasMore ? NoteCursor.encode(notes.get(notes.size() - 1).getId()) : null;
+            generator.writeStringField("nextCursor", nextCursor);
+            generator.writeEndObject();
+        }
     }
 
+    /**
+     * Returns the note as JSON, or only its content when the client prefers {@code text/plain}.
+     * The plain representation honours a single-range {@code Range} header. A body kept in GridFS
+     * is streamed in chunks in both representations rather than loaded whole.
+     * <p>
+     * Responses carry a strong ETag from the note version. {@code If-None-Match} is checked
+     * against the cached note or, on a cache miss, against the version alone, so a 304 never
+     * loads the content. Inline notes are written from {@link NoteJsonCache}, gzipped when the
+     * client accepts it and the body is large enough; the gzipped form is tagged
+     * {@code "v{n}-gz"}. Callers who neither own the note nor have it shared with them get a 404
+     * from {@link NoteAccessIndex} before any of that.
+     */
     @GetMapping("/{id}")
-    public NoteDto getNoteById(@PathVariable("id") String id) {
-        Optional<Note> optionalNote = noteRepository.findById(id);
-        if (optionalNote.isPresent()) {
-            Note note = optionalNote.get();
-            return convertToDto(note);
-        } else {
+    public void getNoteById(@PathVariable("id") String id,
+                            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+                            Principal principal,
+                            WebRequest webRequest,
+                            HttpServletResponse response) throws IOException {
+        if (!noteAccessIndex.canRead(id, currentUserId(principal))) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Note not found");
         }
+        boolean plainText = prefersPlainText(accept);
+        boolean acceptsGzip = !plainText && ContentCodings.acceptsGzip(acceptEncoding);
+        String ifNoneMatch = webRequest.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            Long version = noteCache.getIfPresent(id)
+                    .map(Note::getVersion)
+                    .orElseGet(() -> noteRepository.findVersion(id));
+            String etag = NoteETags.forNote(version, plainText);
+            // Whether a version is gzipped depends only on its size, so a client holding the
+            // gzipped tag would be sent the gzipped form again.
+            if (etag != null && acceptsGzip && ifNoneMatch.contains(NoteETags.gzipped(etag))) {
+                etag = NoteETags.gzipped(etag);
+            }
+            if (etag != null && webRequest.checkNotModified(etag)) {
+                return;
+            }
+        }
+
+        Note note = noteCache.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Note not found"));
+        GridFsResource body = null;
+        if (note.getContentRef() != null) {
+            body = noteBodyStore.open(note.getContentRef());
+            if (body == null) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Note content not found");
+            }
+        }
+        String etag = NoteETags.forNote(note.getVersion(), plainText);
+        if (etag != null) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+        }
+
+        if (plainText) {
+            writeContent(note, body, range, response);
+            return;
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        if (body == null) {
+            writeEncoded(noteJsonCache.get(note, NoteDtos::toDto), acceptsGzip, etag, response);
+            return;
+        }
+        try (Reader reader = new InputStreamReader(body.getInputStream(), StandardCharsets.UTF_8);
+             JsonGenerator generator = objectMapper.createGenerator(response.getOutputStream())) {
+            NoteExportService.writeNote(generator, note, reader);
+        }
+    }
+
+    private static void writeEncoded(NoteJsonCache.Encoded encoded, boolean acceptsGzip, String etag,
+                                     HttpServletResponse response) throws IOException {
+        byte[] bytes = encoded.json();
+        if (encoded.compressible()) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (acceptsGzip) {
+                bytes = encoded.gzip();
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+                if (etag != null) {
+                    response.setHeader(HttpHeaders.ETAG, NoteETags.gzipped(etag));
+                }
+            }
+        }
+        response.setContentLength(bytes.length);
+        response.getOutputStream().write(bytes);
+    }
+
+    private static boolean prefersPlainText(String accept) {
+        if (accept == null) {
+            return false;
+        }
+        List<MediaType> mediaTypes = MediaType.parseMediaTypes(accept);
+        MediaType.sortBySpecificityAndQuality(mediaTypes);
+        return !mediaTypes.isEmpty() && MediaType.TEXT_PLAIN.equalsTypeAndSubtype(mediaTypes.get(0));
+    }
+
+    private static void writeContent(Note note, GridFsResource body, String range,
+                                     HttpServletResponse response) throws IOException {
+        byte[] inline = body == null ? contentBytes(note) : null;
+        long length = body == null ? inline.length : body.contentLength();
+        long start = 0;
+        long end = length - 1;
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE + ";charset=UTF-8");
+        List<HttpRange> ranges = parseRanges(range);
+        // Multi-range requests are answered with the whole body, which RFC 7233 allows.
+        if (ranges.size() == 1) {
+            start = ranges.get(0).getRangeStart(length);
+            end = ranges.get(0).getRangeEnd(length);
+            if (start >= length || start > end) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
+            }
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+        response.setContentLengthLong(end - start + 1);
+
+        try (InputStream input = body == null ? new ByteArrayInputStream(inline) : body.getInputStream()) {
+            StreamUtils.copyRange(input, response.getOutputStream(), start, end);
+        }
+    }
+
+    private static List<HttpRange> parseRanges(String range) {
+        if (range == null) {
+            return Collections.emptyList();
+        }
+        try {
+            return HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException e) {
+            // A malformed Range header is ignored and the whole body is sent.
+            return Collections.emptyList();
+        }
+    }
+
+    private static byte[] contentBytes(Note note) {
+        return note.getContent() == null ? new byte[0] : note.getContent().getBytes(StandardCharsets.UTF_8);
     }
+
     @PostMapping
-    public NoteDto createNote(@RequestBody NoteDto noteDto) {
-        Note note = convertToEntity(noteDto);
+    public NoteDto createNote(@RequestBody NoteDto noteDto, Principal principal) {
+        Note note = NoteDtos.toEntity(noteDto);
+        note.setOwner(currentUserId(principal));
         Note createdNote = noteRepository.save(note);
-        return convertToDto(createdNote);
+        noteAccessIndex.put(createdNote);
+        noteCache.put(createdNote);
+        noteSearchEngine.index(createdNote);
+        NoteDto createdDto = NoteDtos.toDto(createdNote);
+        if (createdNote.getContentRef() != null) {
+            // The body went to GridFS on insert; echo it from the request instead of reading it back.
+            createdDto.setContent(noteDto.getContent());
+        }
+        return createdDto;
     }
 
-    @PutMapping("/{id}")
-    public NoteDto updateNote(@PathVariable("id") String id, @RequestBody NoteDto noteDto) {
-        Optional<Note> optionalNote = noteRepository.findById(id);
-        if (optionalNote.isPresent()) {
-            Note note = optionalNote.get();
-            note.setTitle(noteDto.getTitle());
-            note.setContent(noteDto.getContent());
-
-            Note updatedNote = noteRepository.save(note);
-            return convertToDto(updatedNote);
+    /**
+     * Bulk import from an NDJSON body ({@code application/x-ndjson}), one note per line. The
+     * body is read incrementally and invalid lines are reported without aborting the import.
+     */
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    public ImportResult importNotes(HttpServletRequest request, Principal principal) throws IOException {
+        return noteImportService.importNotes(request.getInputStream(), currentUserId(principal));
+    }
+
+    /**
+     * Streams every note the caller owns as NDJSON. With {@code gzip=true} the download is a
+     * {@code notes.ndjson.gz} file of type {@code application/gzip}, which clients save as is.
+     * Otherwise the NDJSON is sent with {@code Content-Encoding: gzip} when the client accepts it,
+     * and clients decode it transparently. {@code gzip=false} turns both off.
+     */
+    @GetMapping("/export")
+    public void exportNotes(@RequestParam(value = "gzip", required = false) Boolean gzip,
+                            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                            Principal principal,
+                            HttpServletResponse response) throws IOException {
+        String owner = currentUserId(principal);
+        boolean gzipFile = Boolean.TRUE.equals(gzip);
+        boolean gzipEncoding = gzip == null && ContentCodings.acceptsGzip(acceptEncoding);
+
+        if (gzipFile) {
+            response.setContentType("application/gzip");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"notes.ndjson.gz\"");
         } else {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Note not found");
+            response.setContentType("application/x-ndjson");
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"notes.ndjson\"");
+            if (gzip == null) {
+                response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            }
+            if (gzipEncoding) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+        }
+        response.flushBuffer();
+
+        OutputStream output = response.getOutputStream();
+        if (gzipFile || gzipEncoding) {
+            output = new GZIPOutputStream(output, true);
         }
+        noteExportService.exportNotes(owner, output);
+    }
+
+    @PutMapping("/{id}")
+    public NoteDto updateNote(@PathVariable("id") String id, @RequestBody NoteDto noteDto, Principal principal) {
+        return applyUpdate(id, noteDto, currentUserId(principal));
+    }
+
+    /**
+     * Updates only the fields present in the body. When the body carries a {@code version}, the
+     * update applies only if the note is still at that version, and fails with 409 otherwise.
+     */
+    @PatchMapping("/{id}")
+    public NoteDto patchNote(@PathVariable("id") String id, @RequestBody NoteDto noteDto, Principal principal) {
+        return applyUpdate(id, noteDto, currentUserId(principal));
     }
-    private NoteDto convertToDto(Note note) {
-        NoteDto noteDto = new NoteDto();
-        noteDto.setId(note.getId());
-        noteDto.setTitle(note.getTitle());
-        noteDto.setContent(note.getContent());
-        return noteDto;
+
+    private NoteDto applyUpdate(String id, NoteDto noteDto, String owner) {
+        if (noteDto.getTitle() == null && noteDto.getContent() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Nothing to update");
+        }
+        requireOwner(id, owner);
+
+        Note updatedNote = noteRepository.updateFields(id, owner, noteDto.getVersion(), noteDto.getTitle(),
+                noteDto.getContent());
+        if (updatedNote == null) {
+            // Only the failure path pays for a second query, to tell a stale version from a missing note.
+            if (noteDto.getVersion() != null && noteRepository.existsByIdAndOwner(id, owner)) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Note was modified concurrently");
+            }
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Note not found");
+        }
+
+        noteCache.put(updatedNote);
+        noteJsonCache.invalidate(id);
+        noteSearchEngine.index(updatedNote);
+        return NoteDtos.toDto(updatedNote);
     }
+
     @DeleteMapping("/{id}")
-    public void deleteNote(@PathVariable("id") String id) {
-        noteRepository.deleteById(id);
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void deleteNote(@PathVariable("id") String id, Principal principal) {
+        requireOwner(id, currentUserId(principal));
+        noteRepository.deleteWithBody(id);
+        noteAccessIndex.remove(id);
+        noteCache.invalidate(id);
+        noteJsonCache.invalidate(id);
+        noteSearchEngine.remove(id);
     }
 
+    /**
+     * Shares the note with a user named in the body. Notes store user ids, so the username is
+     * resolved here, and an unknown username gets a 404.
+     */
     @PostMapping("/{id}/share")
-    public void shareNote(@PathVariable("id") String id, @RequestBody ShareNoteDto shareNoteDto) {
-        Optional<Note> optionalNote = noteRepository.findById(id);
-        if (optionalNote.isPresent()) {
-            Note note = optionalNote.get();
-            List<String> sharedWith = note.getSharedWith();
-            if (sharedWith == null) {
-                sharedWith = new ArrayList<>();
-            }
-            sharedWith.add(shareNoteDto.getSharedWith());
-            note.setSharedWith(sharedWith);
-            noteRepository.save(note);
-        } else {
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void shareNote(@PathVariable("id") String id, @RequestBody ShareNoteDto shareNoteDto, Principal principal) {
+        String owner = currentUserId(principal);
+        List<String> userIds = userService.resolveIds(Collections.singletonList(shareNoteDto.getSharedWith()));
+        if (noteRepository.shareWith(id, owner, userIds) == 0) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Note not found");
         }
+        noteAccessIndex.shared(id, owner, userIds);
+        noteCache.invalidate(id);
+        noteJsonCache.invalidate(id);
+        noteSearchEngine.shared(id, owner, userIds);
     }
 
-    @GetMapping("/search")
-    public List<NoteDto> searchNotes(@RequestParam("q") String query) {
-        List<Note> matchingNotes = noteRepository.findByContentContaining(query);
+    @DeleteMapping("/{id}/share/{username}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void unshareNote(@PathVariable("id") String id, @PathVariable("username") String username,
+                            Principal principal) {
+        String owner = currentUserId(principal);
+        String userId = userService.resolveIds(Collections.singletonList(username)).get(0);
+        if (noteRepository.unshareWith(id, owner, userId) == 0) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Note not found");
+        }
+        noteAccessIndex.unshared(id, owner, userId);
+        noteCache.invalidate(id);
+        noteJsonCache.invalidate(id);
+        noteSearchEngine.unshared(id, owner, userId);
+    }
+
+    /**
+     * Shares several of the caller's notes with several users in one bulk write. Notes that do not
+     * exist or belong to someone else are skipped and show up as the gap between the number of
+     * requested notes and {@code matched}. Any unknown username fails the whole request with 404.
+     */
+    @PostMapping("/share")
+    public BulkShareResult shareNotes(@RequestBody BulkShareDto bulkShareDto, Principal principal) {
+        String owner = currentUserId(principal);
+        if (bulkShareDto.getNoteIds() == null || bulkShareDto.getNoteIds().isEmpty()
+                || bulkShareDto.getSharedWith() == null || bulkShareDto.getSharedWith().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "noteIds and sharedWith are required");
+        }
 
+        List<String> userIds = userService.resolveIds(bulkShareDto.getSharedWith());
+        BulkWriteResult result = noteRepository.shareAllWith(bulkShareDto.getNoteIds(), owner, userIds);
+        for (String id : bulkShareDto.getNoteIds()) {
+            noteAccessIndex.shared(id, owner, userIds);
+            noteCache.invalidate(id);
+            noteJsonCache.invalidate(id);
+            noteSearchEngine.shared(id, owner, userIds);
+        }
+        return new BulkShareResult(result.getMatchedCount(), result.getModifiedCount());
+    }
+
+    /**
+     * Returns one page of matches as summaries, with the snippet taken around the match. The page
+     * is tagged like the note list and answers a matching {@code If-None-Match} with 304.
+     */
+    @GetMapping("/search")
+    public List<NoteSummaryDto> searchNotes(@RequestParam("q") String query,
+                                            @RequestParam(value = "page", defaultValue = "0") int page,
+                                            @RequestParam(value = "size", defaultValue = "20") int size,
+                                            Principal principal,
+                                            WebRequest webRequest) {
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+        List<NoteSummary> matchingNotes = noteSearchEngine.search(currentUserId(principal), query, pageable);
+        if (webRequest.checkNotModified(NoteETags.forSummaries(matchingNotes, false))) {
+            return null;
+        }
 
-        List<NoteDto> matchingNoteDtos = new ArrayList<>();
-        for (Note note : matchingNotes) {
-            NoteDto noteDto = convertToDto(note);
+        List<NoteSummaryDto> matchingNoteDtos = new ArrayList<>();
+        for (NoteSummary note : matchingNotes) {
+            NoteSummaryDto noteDto = convertToSummaryDto(note);
             matchingNoteDtos.add(noteDto);
         }
 
         return matchingNoteDtos;
     }
 
-    private Note convertToEntity(NoteDto noteDto) {
-        Note note = new Note();
-        note.setId(noteDto.getId());
-        note.setTitle(noteDto.getTitle());
-        note.setContent(noteDto.getContent());
+    static NoteSummaryDto convertToSummaryDto(NoteSummary summary) {
+        NoteSummaryDto summaryDto = new NoteSummaryDto();
+        summaryDto.setId(summary.getId());
+        summaryDto.setOwner(summary.getOwner());
+        summaryDto.setTitle(summary.getTitle());
+        summaryDto.setSnippet(summary.getSnippet());
+        summaryDto.setVersion(summary.getVersion());
+        return summaryDto;
+    }
 
-        return note;
+    private void requireOwner(String id, String userId) {
+        // Someone else's note is reported as missing, as the owner-scoped updates already do.
+        if (!noteAccessIndex.isOwner(id, userId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Note not found");
+        }
+    }
+
+    private String currentUserId(Principal principal) {
+        String userId = UserPrincipal.idOf(principal);
+        if (userId == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Authentication required");
+        }
+        return userId;
     }
 }
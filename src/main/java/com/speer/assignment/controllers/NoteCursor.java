@@ -0,0 +1,35 @@
+package com.speer.assignment.controllers;
+
+import org.bson.types.ObjectId;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Base64;
+
+/**
+ * Opaque page cursors for the note list: the last returned ObjectId, base64url-encoded.
+ */
+final class NoteCursor {
+
+    private NoteCursor() {
+    }
+
+    static String encode(String noteId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(new ObjectId(noteId).toByteArray());
+    }
+
+    /**
+     * @return the note id the cursor points at, or null for an absent cursor
+     * @throws ResponseStatusException with 400 when the cursor was not produced by {@link #encode(String)}
+     */
+    static String decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return new ObjectId(Base64.getUrlDecoder().decode(cursor)).toHexString();
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+}
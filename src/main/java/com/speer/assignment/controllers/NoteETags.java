@@ -0,0 +1,46 @@
+package com.speer.assignment.controllers;
+
+import com.speer.assignment.entity.NoteSummary;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Strong entity tags for note responses. Every change to a note's title or content bumps its
+ * version, so a single note is tagged by its version and a page of summaries by a digest of the
+ * ids and versions on it. Neither needs the response to be serialized first.
+ */
+final class NoteETags {
+
+    private NoteETags() {
+    }
+
+    /**
+     * @return the tag of one note in JSON or plain-text form, or null when the note has no version
+     */
+    static String forNote(Long version, boolean plainText) {
+        if (version == null) {
+            return null;
+        }
+        return "\"v" + version + (plainText ? "-text" : "") + "\"";
+    }
+
+    /**
+     * The tag of the gzip-encoded form of a note tagged {@code etag}. The compressed bytes differ
+     * from the identity ones, so a strong tag may not be shared between the two.
+     */
+    static String gzipped(String etag) {
+        return etag.substring(0, etag.length() - 1) + "-gz\"";
+    }
+
+    /** The tag of a page of summaries, including whether another page follows it. */
+    static String forSummaries(List<NoteSummary> summaries, boolean hasMore) {
+        StringBuilder key = new StringBuilder(summaries.size() * 32);
+        for (NoteSummary summary : summaries) {
+            key.append(summary.getId()).append(':').append(summary.getVersion()).append(';');
+        }
+        key.append(hasMore);
+        return "\"" + DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
@@ -0,0 +1,368 @@
+package com.speer.assignment.controllers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.speer.assignment.dto.BulkShareDto;
+import com.speer.assignment.dto.BulkShareResult;
+import com.speer.assignment.dto.NoteDto;
+import com.speer.assignment.dto.NoteDtos;
+import com.speer.assignment.dto.ShareNoteDto;
+import com.speer.assignment.entity.Note;
+import com.speer.assignment.entity.NoteSummary;
+import com.speer.assignment.repository.NoteBodyStore;
+import com.speer.assignment.repository.ReactiveNoteRepository;
+import com.speer.assignment.search.NoteSearchEngine;
+import com.speer.assignment.security.NoteAccessIndex;
+import com.speer.assignment.security.UserPrincipal;
+import com.speer.assignment.service.UserService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+
+/**
+ * Serves {@code /api/notes} in the {@code reactive} profile with the same request and response
+ * shapes as {@link NoteController}. Mongo access goes through {@link ReactiveNoteRepository}, so
+ * no request thread waits on the database. Pages are collected so they can carry an ETag; the
+ * export is written as the cursor produces documents, and demand from the client flows back to
+ * the cursor.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class NoteHandler {
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final ReactiveNoteRepository noteRepository;
+    private final NoteAccessIndex noteAccessIndex;
+    private final NoteSearchEngine noteSearchEngine;
+    private final NoteBodyStore noteBodyStore;
+    private final UserService userService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.search.engine:text}")
+    private String searchEngine;
+
+    @Value("${app.export.batchSize:1000}")
+    private int exportBatchSize;
+
+    public NoteHandler(ReactiveNoteRepository noteRepository, NoteAccessIndex noteAccessIndex,
+                       NoteSearchEngine noteSearchEngine, NoteBodyStore noteBodyStore, UserService userService,
+                       ObjectMapper objectMapper) {
+        this.noteRepository = noteRepository;
+        this.noteAccessIndex = noteAccessIndex;
+        this.noteSearchEngine = noteSearchEngine;
+        this.noteBodyStore = noteBodyStore;
+        this.userService = userService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes one page as {@code {"notes": [...], "nextCursor": ...}}. One extra row is read to
+     * decide whether another page exists. The page is at most {@code size + 1} summaries, so it is
+     * collected before writing and tagged like {@link NoteController}'s pages; a matching
+     * {@code If-None-Match} gets a 304 without encoding anything.
+     */
+    public Mono<ServerResponse> getAllNotes(ServerRequest request) {
+        int pageSize = pageSize(request);
+        String afterId = NoteCursor.decode(request.queryParam("cursor").orElse(null));
+
+        return currentUserId(request).flatMap(userId ->
+                writePage(request, noteRepository.findVisibleTo(userId, afterId, pageSize + 1), pageSize));
+    }
+
+    /**
+     * Writes one page of the notes shared with the caller, in the same shape as {@link #getAllNotes}.
+     */
+    public Mono<ServerResponse> getSharedNotes(ServerRequest request) {
+        int pageSize = pageSize(request);
+        String afterId = NoteCursor.decode(request.queryParam("cursor").orElse(null));
+
+        return currentUserId(request).flatMap(userId ->
+                writePage(request, noteRepository.findSharedWith(userId, afterId, pageSize + 1), pageSize));
+    }
+
+    private Mono<ServerResponse> writePage(ServerRequest request, Flux<NoteSummary> rows, int pageSize) {
+        return rows.collectList().flatMap(notes -> {
+            boolean hasMore = notes.size() > pageSize;
+            List<NoteSummary> page = hasMore ? notes.subList(0, pageSize) : notes;
+            String etag = NoteETags.forSummaries(page, hasMore);
+            return request.checkNotModified(etag).switchIfEmpty(Mono.defer(() -> ServerResponse.ok()
+                    .eTag(etag)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(BodyInserters.fromDataBuffers(Mono.fromCallable(() -> encodePage(page, hasMore))))));
+        });
+    }
+
+    private DataBuffer encodePage(List<NoteSummary> page, boolean hasMore) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256 * page.size() + 32);
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("notes");
+            for (NoteSummary note : page) {
+                generator.writeObject(NoteController.convertToSummaryDto(note));
+            }
+            generator.writeEndArray();
+            String nextCursor = hasMore ? NoteCursor.encode(page.get(page.size() - 1).getId()) : null;
+            generator.writeStringField("nextCursor", nextCursor);
+            generator.writeEndObject();
+        }
+        return DefaultDataBufferFactory.sharedInstance.wrap(out.toByteArray());
+    }
+
+    /**
+     * Returns the note as JSON with a strong ETag from its version. A request with
+     * {@code If-None-Match} first reads only the version, as {@link NoteController} does, so a
+     * matching tag is answered with 304 without loading the note. A body kept in GridFS is read
+     * whole on a worker thread; ranged and chunked reads of large bodies are only served by
+     * {@link NoteController}. Access is checked against {@link NoteAccessIndex} before the read.
+     */
+    public Mono<ServerResponse> getNoteById(ServerRequest request) {
+        String id = request.pathVariable("id");
+        Mono<ServerResponse> full = Mono.defer(() -> noteRepository.findById(id))
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Note not found")))
+                .flatMap(note -> convertToFullDto(note).flatMap(noteDto -> {
+                    String etag = NoteETags.forNote(note.getVersion(), false);
+                    ServerResponse.BodyBuilder ok = ServerResponse.ok();
+                    return (etag == null ? ok : ok.eTag(etag)).bodyValue(noteDto);
+                }));
+        return currentUserId(request)
+                .filterWhen(userId -> checkAccess(id, () -> noteAccessIndex.canRead(id, userId)))
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Note not found")))
+                .flatMap(userId -> request.headers().header(HttpHeaders.IF_NONE_MATCH).isEmpty() ? full
+                        : noteRepository.findVersion(id)
+                                .flatMap(version -> request.checkNotModified(NoteETags.forNote(version, false)))
+                                .switchIfEmpty(full));
+    }
+
+    public Mono<ServerResponse> createNote(ServerRequest request) {
+        return Mono.zip(currentUserId(request), request.bodyToMono(NoteDto.class))
+                .flatMap(tuple -> {
+                    Note note = NoteDtos.toEntity(tuple.getT2());
+                    note.setOwner(tuple.getT1());
+                    Mono<Note> saved = noteRepository.save(note);
+                    // An oversized body is moved to GridFS by a blocking listener during the save.
+                    return noteBodyStore.spills(note.getContent()) ? saved.subscribeOn(Schedulers.boundedElastic()) : saved;
+                })
+                .doOnNext(noteAccessIndex::put)
+                .flatMap(this::indexed)
+                .flatMap(note -> ServerResponse.ok().bodyValue(NoteDtos.toDto(note)));
+    }
+
+    /**
+     * Handles both PUT and PATCH: only the fields present in the body are written, and a
+     * {@code version} in the body makes the update conditional, as in {@link NoteController}.
+     */
+    public Mono<ServerResponse> updateNote(ServerRequest request) {
+        String id = request.pathVariable("id");
+        return Mono.zip(currentUserId(request), request.bodyToMono(NoteDto.class))
+                .flatMap(tuple -> applyUpdate(id, tuple.getT2(), tuple.getT1()))
+                .flatMap(note -> ServerResponse.ok().bodyValue(NoteDtos.toDto(note)));
+    }
+
+    private Mono<Note> applyUpdate(String id, NoteDto noteDto, String owner) {
+        if (noteDto.getTitle() == null && noteDto.getContent() == null) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Nothing to update"));
+        }
+
+        Mono<Note> notUpdated = Mono.defer(() -> {
+            if (noteDto.getVersion() == null) {
+                return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Note not found"));
+            }
+            return noteRepository.existsByIdAndOwner(id, owner).flatMap(exists -> Mono.error(exists
+                    ? new ResponseStatusException(HttpStatus.CONFLICT, "Note was modified concurrently")
+                    : new ResponseStatusException(HttpStatus.NOT_FOUND, "Note not found")));
+        });
+
+        return checkAccess(id, () -> noteAccessIndex.isOwner(id, owner))
+                .filter(Boolean::booleanValue)
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Note not found")))
+                .flatMap(owned -> noteRepository.updateFields(id, owner, noteDto.getVersion(), noteDto.getTitle(),
+                        noteDto.getContent()))
+                .switchIfEmpty(notUpdated)
+                .flatMap(this::indexed);
+    }
+
+    /** A spilled body is read back from GridFS to be indexed, which blocks, so that runs on a worker thread. */
+    private Mono<Note> indexed(Note note) {
+        Mono<Note> indexed = Mono.fromCallable(() -> {
+            noteSearchEngine.index(note);
+            return note;
+        });
+        return note.getContentRef() == null ? indexed : indexed.subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<ServerResponse> deleteNote(ServerRequest request) {
+        String id = request.pathVariable("id");
+        return currentUserId(request)
+                .filterWhen(owner -> checkAccess(id, () -> noteAccessIndex.isOwner(id, owner)))
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Note not found")))
+                .flatMap(owner -> noteRepository.deleteWithBody(id))
+                .then(Mono.fromRunnable(() -> {
+                    noteAccessIndex.remove(id);
+                    noteSearchEngine.remove(id);
+                }))
+                .then(ServerResponse.noContent().build());
+    }
+
+    public Mono<ServerResponse> shareNote(ServerRequest request) {
+        String id = request.pathVariable("id");
+        return Mono.zip(currentUserId(request), request.bodyToMono(ShareNoteDto.class))
+                .flatMap(tuple -> resolveIds(Collections.singletonList(tuple.getT2().getSharedWith()))
+                        .flatMap(userIds -> noteRepository.shareWith(id, tuple.getT1(), userIds)
+                                .flatMap(matched -> sharingApplied(matched, () -> {
+                                    noteAccessIndex.shared(id, tuple.getT1(), userIds);
+                                    noteSearchEngine.shared(id, tuple.getT1(), userIds);
+                                }))));
+    }
+
+    public Mono<ServerResponse> unshareNote(ServerRequest request) {
+        String id = request.pathVariable("id");
+        String username = request.pathVariable("username");
+        return currentUserId(request)
+                .flatMap(owner -> resolveIds(Collections.singletonList(username))
+                        .flatMap(userIds -> noteRepository.unshareWith(id, owner, userIds.get(0))
+                                .flatMap(matched -> sharingApplied(matched, () -> {
+                                    noteAccessIndex.unshared(id, owner, userIds.get(0));
+                                    noteSearchEngine.unshared(id, owner, userIds.get(0));
+                                }))));
+    }
+
+    private Mono<ServerResponse> sharingApplied(long matched, Runnable onApplied) {
+        if (matched == 0) {
+            return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Note not found"));
+        }
+        onApplied.run();
+        return ServerResponse.noContent().build();
+    }
+
+    public Mono<ServerResponse> shareNotes(ServerRequest request) {
+        return Mono.zip(currentUserId(request), request.bodyToMono(BulkShareDto.class))
+                .flatMap(tuple -> {
+                    String owner = tuple.getT1();
+                    BulkShareDto bulkShareDto = tuple.getT2();
+                    if (bulkShareDto.getNoteIds() == null || bulkShareDto.getNoteIds().isEmpty()
+                            || bulkShareDto.getSharedWith() == null || bulkShareDto.getSharedWith().isEmpty()) {
+                        return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                                "noteIds and sharedWith are required"));
+                    }
+                    return resolveIds(bulkShareDto.getSharedWith()).flatMap(userIds ->
+                            noteRepository.shareAllWith(bulkShareDto.getNoteIds(), owner, userIds)
+                                    .doOnNext(result -> bulkShareDto.getNoteIds().forEach(id -> {
+                                        noteAccessIndex.shared(id, owner, userIds);
+                                        noteSearchEngine.shared(id, owner, userIds);
+                                    }))
+                                    .map(result -> new BulkShareResult(result.getMatchedCount(), result.getModifiedCount())));
+                })
+                .flatMap(result -> ServerResponse.ok().bodyValue(result));
+    }
+
+    /**
+     * With the {@code text} engine the {@code $text} query is read from the cursor without
+     * blocking. The in-memory engines answer synchronously and load their page with blocking
+     * reads, so they run on the bounded elastic scheduler instead of an event-loop thread. The
+     * page is tagged like the note list and answers a matching {@code If-None-Match} with 304.
+     */
+    public Mono<ServerResponse> searchNotes(ServerRequest request) {
+        String query = request.queryParam("q")
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "q is required"));
+        int page = Math.max(intParam(request, "page", 0), 0);
+        Pageable pageable = PageRequest.of(page, pageSize(request));
+
+        Flux<NoteSummary> notes = currentUserId(request).flatMapMany(userId -> {
+            if ("text".equals(searchEngine)) {
+                return noteRepository.searchVisibleTo(userId, query, pageable);
+            }
+            return Mono.fromCallable(() -> noteSearchEngine.search(userId, query, pageable))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .flatMapIterable(matches -> matches);
+        });
+
+        return notes.collectList().flatMap(page -> {
+            String etag = NoteETags.forSummaries(page, false);
+            return request.checkNotModified(etag).switchIfEmpty(Mono.defer(() -> ServerResponse.ok()
+                    .eTag(etag)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(page.stream().map(NoteController::convertToSummaryDto).collect(Collectors.toList()))));
+        });
+    }
+
+    /**
+     * Streams every note the caller owns as NDJSON. Each note is encoded and flushed on its own,
+     * and the cursor fetches {@code app.export.batchSize} documents per round trip.
+     */
+    public Mono<ServerResponse> exportNotes(ServerRequest request) {
+        Flux<NoteDto> notes = currentUserId(request)
+                .flatMapMany(owner -> noteRepository.findOwnedBy(owner, exportBatchSize))
+                .concatMap(this::convertToFullDto);
+
+        return ServerResponse.ok()
+                .contentType(NDJSON)
+                .header("Content-Disposition", "attachment; filename=\"notes.ndjson\"")
+                .body(notes, NoteDto.class);
+    }
+
+    private Mono<NoteDto> convertToFullDto(Note note) {
+        if (note.getContentRef() == null) {
+            return Mono.just(NoteDtos.toDto(note));
+        }
+        return Mono.fromCallable(() -> noteBodyStore.read(note.getContentRef()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(content -> {
+                    NoteDto noteDto = NoteDtos.toDto(note);
+                    noteDto.setContent(content);
+                    return noteDto;
+                });
+    }
+
+    /** A check on a note missing from {@link NoteAccessIndex} reads Mongo, so it runs on a worker thread. */
+    private Mono<Boolean> checkAccess(String id, Callable<Boolean> check) {
+        Mono<Boolean> allowed = Mono.fromCallable(check);
+        return noteAccessIndex.isLoaded(id) ? allowed : allowed.subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /** Share targets are named by username; the user repository is blocking, so this runs on a worker thread. */
+    private Mono<List<String>> resolveIds(List<String> usernames) {
+        return Mono.fromCallable(() -> userService.resolveIds(usernames))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Mono<String> currentUserId(ServerRequest request) {
+        return request.principal()
+                .mapNotNull(UserPrincipal::idOf)
+                .switchIfEmpty(Mono.error(() ->
+                        new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Authentication required")));
+    }
+
+    private static int pageSize(ServerRequest request) {
+        return Math.max(1, Math.min(intParam(request, "size", 20), MAX_PAGE_SIZE));
+    }
+
+    private static int intParam(ServerRequest request, String name, int defaultValue) {
+        try {
+            return request.queryParam(name).map(Integer::parseInt).orElse(defaultValue);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid " + name);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.speer.assignment.controllers;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.DELETE;
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+import static org.springframework.web.reactive.function.server.RequestPredicates.PATCH;
+import static org.springframework.web.reactive.function.server.RequestPredicates.POST;
+import static org.springframework.web.reactive.function.server.RequestPredicates.PUT;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * Routes {@code /api/notes} to {@link NoteHandler} when the application runs as a reactive web
+ * application, which the {@code reactive} profile selects. The NDJSON import stays servlet-only.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class NoteRoutes {
+
+    @Bean
+    public RouterFunction<ServerResponse> noteRouter(NoteHandler handler) {
+        return route(GET("/api/notes"), handler::getAllNotes)
+                .andRoute(GET("/api/notes/shared"), handler::getSharedNotes)
+                .andRoute(GET("/api/notes/search"), handler::searchNotes)
+                .andRoute(GET("/api/notes/export"), handler::exportNotes)
+                .andRoute(POST("/api/notes/share"), handler::shareNotes)
+                .andRoute(GET("/api/notes/{id}"), handler::getNoteById)
+                .andRoute(POST("/api/notes"), handler::createNote)
+                .andRoute(PUT("/api/notes/{id}"), handler::updateNote)
+                .andRoute(PATCH("/api/notes/{id}"), handler::updateNote)
+                .andRoute(DELETE("/api/notes/{id}"), handler::deleteNote)
+                .andRoute(POST("/api/notes/{id}/share"), handler::shareNote)
+                .andRoute(DELETE("/api/notes/{id}/share/{username}"), handler::unshareNote);
+    }
+}
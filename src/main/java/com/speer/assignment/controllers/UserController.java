@@ -5,7 +5,15 @@ import com.speer.assignment.entity.User;
 import com.speer.assignment.service.UserService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The user repository is blocking, so lookups and deletes return a {@link Mono} on a worker
+ * thread; under the {@code reactive} profile these controllers run on the event loop.
+ */
 @RestController
 @RequestMapping("/api/users")
 public class UserController {
@@ -16,34 +24,39 @@ public class UserController {
     }
 
     @PostMapping("/register")
-    public ResponseEntity<UserDto> registerUser(@RequestBody UserDto userDto) {
-        User registeredUser = userService.registerUser(userDto);
-        UserDto registeredUserDto = convertToDto(registeredUser);
-        return ResponseEntity.ok(registeredUserDto);
+    public CompletableFuture<ResponseEntity<UserDto>> registerUser(@RequestBody UserDto userDto) {
+        return userService.registerUser(userDto)
+                .thenApply(registeredUser -> ResponseEntity.ok(convertToDto(registeredUser)));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<UserDto> getUserById(@PathVariable("id") String id) {
-        User user = userService.getUserById(id);
-        if (user != null) {
-            UserDto userDto = convertToDto(user);
-            return ResponseEntity.ok(userDto);
-        } else {
-            return ResponseEntity.notFound().build();
-        }
+    public Mono<ResponseEntity<UserDto>> getUserById(@PathVariable("id") String id) {
+        return Mono.fromCallable(() -> {
+            User user = userService.getUserById(id);
+            if (user != null) {
+                UserDto userDto = convertToDto(user);
+                return ResponseEntity.ok(userDto);
+            } else {
+                return ResponseEntity.notFound().<UserDto>build();
+            }
+        }).subscribeOn(Schedulers.boundedElastic());
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<UserDto> updateUser(@PathVariable("id") String id, @RequestBody UserDto userDto) {
-        User updatedUser = userService.updateUser(id, userDto);
-        UserDto updatedUserDto = convertToDto(updatedUser);
-        return ResponseEntity.ok(updatedUserDto);
+    public Mono<ResponseEntity<UserDto>> updateUser(@PathVariable("id") String id, @RequestBody UserDto userDto) {
+        // updateUser loads the user before it hands off to the hashing pool.
+        return Mono.fromCallable(() -> userService.updateUser(id, userDto))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(Mono::fromFuture)
+                .map(updatedUser -> ResponseEntity.ok(convertToDto(updatedUser)));
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteUser(@PathVariable("id") String id) {
-        userService.deleteUser(id);
-        return ResponseEntity.noContent().build();
+    public Mono<ResponseEntity<Void>> deleteUser(@PathVariable("id") String id) {
+        return Mono.fromCallable(() -> {
+            userService.deleteUser(id);
+            return ResponseEntity.noContent().<Void>build();
+        }).subscribeOn(Schedulers.boundedElastic());
     }
 
     private UserDto convertToDto(User user) {
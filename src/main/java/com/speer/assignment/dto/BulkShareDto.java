@@ -0,0 +1,11 @@
+package com.speer.assignment.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkShareDto {
+    private List<String> noteIds;
+    private List<String> sharedWith;
+}
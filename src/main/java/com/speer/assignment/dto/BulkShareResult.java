@@ -0,0 +1,13 @@
+package com.speer.assignment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkShareResult {
+    private long matched;
+    private long modified;
+}
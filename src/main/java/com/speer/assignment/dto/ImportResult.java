@@ -0,0 +1,24 @@
+package com.speer.assignment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ImportResult {
+    private int imported;
+    private int failed;
+    // Only the first errors are listed; failed holds the full count.
+    private List<LineError> errors = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LineError {
+        private int line;
+        private String message;
+    }
+}
@@ -7,4 +7,5 @@ public class NoteDto {
     private String id;
     private String title;
     private String content;
+    private Long version;
 }
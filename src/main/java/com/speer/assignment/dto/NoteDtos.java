@@ -0,0 +1,33 @@
+package com.speer.assignment.dto;
+
+import com.speer.assignment.entity.Note;
+
+/**
+ * Conversions between {@link Note} and {@link NoteDto}, shared by the servlet controller, the
+ * reactive handler and the export. The content of a spilled note is null here; callers that
+ * return full bodies read it from the body store.
+ */
+public final class NoteDtos {
+
+    private NoteDtos() {
+    }
+
+    public static NoteDto toDto(Note note) {
+        NoteDto noteDto = new NoteDto();
+        noteDto.setId(note.getId());
+        noteDto.setTitle(note.getTitle());
+        noteDto.setContent(note.getContent());
+        noteDto.setVersion(note.getVersion());
+        return noteDto;
+    }
+
+    public static Note toEntity(NoteDto noteDto) {
+        // Ids are always assigned by the server: keyset cursors require an ObjectId, and a client id
+        // could collide with an existing note.
+        Note note = new Note();
+        note.setTitle(noteDto.getTitle());
+        note.setContent(noteDto.getContent());
+
+        return note;
+    }
+}
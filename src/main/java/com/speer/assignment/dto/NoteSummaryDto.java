@@ -0,0 +1,12 @@
+package com.speer.assignment.dto;
+
+import lombok.Data;
+
+@Data
+public class NoteSummaryDto {
+    private String id;
+    private String owner;
+    private String title;
+    private String snippet;
+    private Long version;
+}
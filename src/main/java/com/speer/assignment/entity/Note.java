@@ -1,9 +1,15 @@
 package com.speer.assignment.entity;
 
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.index.TextIndexed;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.TextScore;
 
 import java.util.List;
 
@@ -12,10 +18,42 @@ import java.util.List;
 public class Note {
     @Id
     private String id;
+    private String owner;
     private String title;
 
-    @TextIndexed
-    private String content;
+    /** Stored as {@code content}: a string, or compressed binary for large bodies. */
+    @Field("content")
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private NoteContent storedContent;
+
+    /** GridFS id of the body when it was too large to keep inline; {@code content} is then null. */
+    private ObjectId contentRef;
+
     private List<String> sharedWith;
 
+    @Version
+    private Long version;
+
+    @TextScore
+    private Float score;
+
+    /** The content as text; compressed content is inflated on every call. */
+    public String getContent() {
+        return storedContent == null ? null : storedContent.text();
+    }
+
+    public void setContent(String content) {
+        this.storedContent = NoteContent.of(content);
+    }
+
+    /** Sets the content in its stored form, so compressed content stays compressed in memory. */
+    public void setStoredContent(NoteContent storedContent) {
+        this.storedContent = storedContent;
+    }
+
+    /** Approximate heap held by the content, without inflating it. */
+    public long contentFootprint() {
+        return storedContent == null ? 0 : storedContent.footprint();
+    }
 }
@@ -0,0 +1,162 @@
+package com.speer.assignment.entity;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * The body of a note, held either as plain text or in the compressed stored form. Compressed
+ * content is only inflated when {@link #text()} or {@link #prefix(int)} is called, and the result
+ * is not kept, so cached notes stay at their compressed size.
+ * <p>
+ * Compressed form: one format byte ({@link #FORMAT_DEFLATE}), the UTF-8 length as a big-endian
+ * int, then zlib-wrapped Deflate data. Equality and hash codes compare the stored form, so neither
+ * inflates; plain and compressed content are never equal.
+ */
+public final class NoteContent {
+    public static final byte FORMAT_DEFLATE = 1;
+    private static final int HEADER_BYTES = 1 + Integer.BYTES;
+
+    private final String text;
+    private final byte[] compressed;
+
+    private NoteContent(String text, byte[] compressed) {
+        this.text = text;
+        this.compressed = compressed;
+    }
+
+    public static NoteContent of(String text) {
+        return text == null ? null : new NoteContent(text, null);
+    }
+
+    /**
+     * Wraps bytes in the compressed stored form without inflating them.
+     *
+     * @throws IllegalArgumentException if the format byte is unknown
+     */
+    public static NoteContent fromCompressed(byte[] compressed) {
+        if (compressed.length < HEADER_BYTES || compressed[0] != FORMAT_DEFLATE) {
+            throw new IllegalArgumentException("Unknown note content format");
+        }
+        return new NoteContent(null, compressed);
+    }
+
+    /**
+     * @return the compressed stored form of {@code text}, or null when compressing would not make
+     * it smaller than its UTF-8 encoding
+     */
+    public static byte[] compress(String text) {
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(utf8);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(utf8.length / 4 + HEADER_BYTES);
+            out.write(FORMAT_DEFLATE);
+            out.write(ByteBuffer.allocate(Integer.BYTES).putInt(utf8.length).array(), 0, Integer.BYTES);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+                if (out.size() >= utf8.length) {
+                    return null;
+                }
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    public boolean isCompressed() {
+        return compressed != null;
+    }
+
+    /** The compressed stored form; only valid when {@link #isCompressed()}. Must not be modified. */
+    public byte[] compressedBytes() {
+        return compressed;
+    }
+
+    public String text() {
+        if (compressed == null) {
+            return text;
+        }
+        byte[] utf8 = new byte[ByteBuffer.wrap(compressed, 1, Integer.BYTES).getInt()];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed, HEADER_BYTES, compressed.length - HEADER_BYTES);
+            int read = 0;
+            while (read < utf8.length && !inflater.finished()) {
+                int n = inflater.inflate(utf8, read, utf8.length - read);
+                if (n == 0 && inflater.needsInput()) {
+                    break;
+                }
+                read += n;
+            }
+            return new String(utf8, 0, read, StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt compressed note content", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /** The first {@code maxChars} characters, inflating no more of the data than that needs. */
+    public String prefix(int maxChars) {
+        if (compressed == null) {
+            return text.length() <= maxChars ? text : text.substring(0, maxChars);
+        }
+        char[] chars = new char[maxChars];
+        int read = 0;
+        try (Reader reader = new InputStreamReader(new InflaterInputStream(
+                new ByteArrayInputStream(compressed, HEADER_BYTES, compressed.length - HEADER_BYTES)),
+                StandardCharsets.UTF_8)) {
+            int n;
+            while (read < maxChars && (n = reader.read(chars, read, maxChars - read)) > 0) {
+                read += n;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt compressed note content", e);
+        }
+        return new String(chars, 0, read);
+    }
+
+    /** Approximate heap held by this content: the compressed bytes, or two bytes per character. */
+    public long footprint() {
+        return compressed != null ? compressed.length : 2L * text.length();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof NoteContent)) {
+            return false;
+        }
+        NoteContent other = (NoteContent) o;
+        if (compressed != null || other.compressed != null) {
+            return Arrays.equals(compressed, other.compressed);
+        }
+        return text.equals(other.text);
+    }
+
+    @Override
+    public int hashCode() {
+        return compressed != null ? Arrays.hashCode(compressed) : text.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return compressed != null ? "NoteContent(compressed, " + compressed.length + " bytes)" : text;
+    }
+}
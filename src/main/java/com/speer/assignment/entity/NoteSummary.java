@@ -0,0 +1,18 @@
+package com.speer.assignment.entity;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+
+/**
+ * Read-only projection of a {@link Note} for list and search pages: the title and a bounded
+ * snippet of the content instead of the whole document.
+ */
+@Data
+public class NoteSummary {
+    @Id
+    private String id;
+    private String owner;
+    private String title;
+    private String snippet;
+    private Long version;
+}
@@ -0,0 +1,23 @@
+package com.speer.assignment.entity;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+@Data
+@Document(collection = "refresh_tokens")
+public class RefreshToken {
+    @Id
+    private String id;
+
+    // SHA-256 of the token handed to the client; the token itself is never stored.
+    private String tokenHash;
+
+    private String userId;
+    private String username;
+
+    // Removed by the TTL index on this field once expired.
+    private Date expiresAt;
+}
@@ -0,0 +1,18 @@
+package com.speer.assignment.repository;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+/**
+ * Replaces Boot's default conversions so both the blocking and the reactive template store note
+ * content through {@link NoteContentConverter}.
+ */
+@Configuration
+public class MongoConversionConfig {
+
+    @Bean
+    public MongoCustomConversions mongoCustomConversions(NoteContentConverter noteContentConverter) {
+        return NoteContentConverter.conversions(noteContentConverter);
+    }
+}
@@ -0,0 +1,102 @@
+package com.speer.assignment.repository;
+
+import com.speer.assignment.entity.Note;
+import com.speer.assignment.entity.RefreshToken;
+import com.speer.assignment.entity.User;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * Creates every index the queries depend on at startup, then checks that each one exists with
+ * the expected keys and options and fails startup otherwise. Annotation-driven index creation
+ * is turned off ({@code spring.data.mongodb.auto-index-creation=false}), so this is the one list
+ * of indexes. {@code QueryPlanTest} verifies that each repository query is served by one of them.
+ */
+@Component
+public class MongoIndexManager {
+    private final MongoTemplate mongoTemplate;
+    private final NoteTextIndexInitializer textIndex;
+
+    public MongoIndexManager(MongoTemplate mongoTemplate, NoteTextIndexInitializer textIndex) {
+        this.mongoTemplate = mongoTemplate;
+        this.textIndex = textIndex;
+    }
+
+    @PostConstruct
+    public void ensureIndexes() {
+        textIndex.ensureTextIndex();
+        requiredIndexes().forEach((collection, indexes) ->
+                indexes.forEach(index -> mongoTemplate.indexOps(collection).ensureIndex(index)));
+
+        List<String> problems = validate();
+        if (!problems.isEmpty()) {
+            throw new IllegalStateException("Mongo indexes do not match the required set: " + problems);
+        }
+    }
+
+    /** Required indexes by collection, apart from the text index owned by {@link NoteTextIndexInitializer}. */
+    Map<String, List<Index>> requiredIndexes() {
+        Map<String, List<Index>> indexes = new LinkedHashMap<>();
+        // Keyset paging of owned and shared notes: the _id bound and sort are resolved in the index.
+        indexes.put(mongoTemplate.getCollectionName(Note.class), Arrays.asList(
+                new Index().on("owner", Sort.Direction.ASC).on("_id", Sort.Direction.ASC).named("owner_id"),
+                new Index().on("sharedWith", Sort.Direction.ASC).on("_id", Sort.Direction.ASC).named("sharedWith_id")));
+        indexes.put(mongoTemplate.getCollectionName(User.class), Collections.singletonList(
+                new Index().on("username", Sort.Direction.ASC).named("username").unique()));
+        indexes.put(mongoTemplate.getCollectionName(RefreshToken.class), Arrays.asList(
+                new Index().on("tokenHash", Sort.Direction.ASC).named("tokenHash").unique(),
+                new Index().on("userId", Sort.Direction.ASC).named("userId"),
+                new Index().on("expiresAt", Sort.Direction.ASC).named("expiresAt").expire(0)));
+        indexes.put(NoteBodyStore.BUCKET + ".files", Collections.singletonList(
+                new Index().on("metadata.noteId", Sort.Direction.ASC).named("noteId")));
+        return indexes;
+    }
+
+    /** Lists every required index that is missing or differs in keys, uniqueness or expiry. */
+    List<String> validate() {
+        List<String> problems = new ArrayList<>();
+        String notes = mongoTemplate.getCollectionName(Note.class);
+        if (find(notes, existing -> NoteTextIndexInitializer.INDEX_NAME.equals(existing.getString("name"))) == null) {
+            problems.add(notes + "." + NoteTextIndexInitializer.INDEX_NAME);
+        }
+
+        requiredIndexes().forEach((collection, indexes) -> {
+            for (Index index : indexes) {
+                Document options = index.getIndexOptions();
+                Document existing = find(collection, candidate -> index.getIndexKeys().equals(candidate.get("key")));
+                if (existing == null
+                        || options.getBoolean("unique", false) != existing.getBoolean("unique", false)
+                        || !Objects.equals(seconds(options.get("expireAfterSeconds")), seconds(existing.get("expireAfterSeconds")))) {
+                    problems.add(collection + "." + options.getString("name"));
+                }
+            }
+        });
+        return problems;
+    }
+
+    private Document find(String collection, Predicate<Document> matches) {
+        for (Document existing : mongoTemplate.getCollection(collection).listIndexes()) {
+            if (matches.test(existing)) {
+                return existing;
+            }
+        }
+        return null;
+    }
+
+    private static Long seconds(Object value) {
+        return value == null ? null : ((Number) value).longValue();
+    }
+}
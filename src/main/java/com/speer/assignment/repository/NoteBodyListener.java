@@ -0,0 +1,68 @@
+package com.speer.assignment.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.speer.assignment.entity.Note;
+import com.speer.assignment.entity.NoteContent;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+import org.springframework.data.mongodb.core.mapping.event.BeforeSaveEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves oversized content of newly inserted notes into {@link NoteBodyStore} before the document
+ * is written, and adds the search terms and preview of content that was stored compressed or
+ * spilled. Content updates and deletes go through {@code updateFields} and {@code deleteWithBody},
+ * which handle the store and the terms themselves and only touch the store for spilled notes.
+ */
+@Component
+public class NoteBodyListener extends AbstractMongoEventListener<Note> {
+    private final NoteBodyStore noteBodyStore;
+    private final NoteContentConverter contentConverter;
+    /** Search fields of spilled notes between the two events, keyed by identity; the text is gone by the save. */
+    private final Cache<Note, Document> spilledSearchFields = Caffeine.newBuilder().weakKeys().build();
+
+    public NoteBodyListener(NoteBodyStore noteBodyStore, NoteContentConverter contentConverter) {
+        this.noteBodyStore = noteBodyStore;
+        this.contentConverter = contentConverter;
+    }
+
+    @Override
+    public void onBeforeConvert(BeforeConvertEvent<Note> event) {
+        Note note = event.getSource();
+        if (note.getContentRef() != null || !noteBodyStore.spills(note.getContent())) {
+            return;
+        }
+        if (note.getId() == null) {
+            // The body is filed under the note id, so the id has to exist before the insert.
+            note.setId(new ObjectId().toHexString());
+        }
+        note.setContentRef(noteBodyStore.store(note.getId(), note.getContent()));
+        spilledSearchFields.put(note, contentConverter.searchFields(note.getContent()));
+        note.setContent(null);
+    }
+
+    @Override
+    public void onBeforeSave(BeforeSaveEvent<Note> event) {
+        Document document = event.getDocument();
+        Note note = event.getSource();
+        Document spilled = spilledSearchFields.asMap().remove(note);
+        if (document == null) {
+            return;
+        }
+        if (spilled != null) {
+            document.putAll(spilled);
+            return;
+        }
+        if (!(document.get("content") instanceof Binary)) {
+            return;
+        }
+        // The fields go into the document only, so loaded notes and the cache never carry them.
+        document.putAll(contentConverter.searchFields(note.getContent()));
+        // The saved note is what callers cache, so it keeps the compressed form rather than the text.
+        note.setStoredContent(NoteContent.fromCompressed(((Binary) document.get("content")).getData()));
+    }
+}
@@ -0,0 +1,77 @@
+package com.speer.assignment.repository;
+
+import com.mongodb.client.gridfs.model.GridFSFile;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.gridfs.GridFsResource;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Keeps the bodies of notes over {@code app.notes.spillThresholdBytes} of UTF-8 in the
+ * {@value #BUCKET} GridFS bucket, so the note document itself stays small. Each file carries the
+ * note id as {@code metadata.noteId}; a note has at most one live body, and an update that
+ * replaces it deletes the old one by id. The {@code metadata.noteId} index is
+ * created by {@link MongoIndexManager}.
+ */
+@Component
+public class NoteBodyStore {
+    static final String BUCKET = "note_bodies";
+    static final String CONTENT_TYPE = "text/plain;charset=UTF-8";
+
+    private final GridFsTemplate gridFsTemplate;
+
+    @Value("${app.notes.spillThresholdBytes:4194304}")
+    private int spillThresholdBytes;
+
+    public NoteBodyStore(MongoDatabaseFactory databaseFactory, MongoTemplate mongoTemplate) {
+        this.gridFsTemplate = new GridFsTemplate(databaseFactory, mongoTemplate.getConverter(), BUCKET);
+    }
+
+    /** Whether {@code content} is too large to be kept inline in the note document. */
+    public boolean spills(String content) {
+        // Three bytes per char bounds the UTF-8 size, so short content is never encoded here.
+        return content != null && content.length() * 3L >= spillThresholdBytes
+                && content.getBytes(StandardCharsets.UTF_8).length >= spillThresholdBytes;
+    }
+
+    public ObjectId store(String noteId, String content) {
+        InputStream body = new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+        return gridFsTemplate.store(body, noteId, CONTENT_TYPE, new Document("noteId", noteId));
+    }
+
+    /** The stored body as a readable resource, or null when it no longer exists. */
+    public GridFsResource open(ObjectId contentRef) {
+        GridFSFile file = gridFsTemplate.findOne(Query.query(Criteria.where("_id").is(contentRef)));
+        return file == null ? null : gridFsTemplate.getResource(file);
+    }
+
+    /** The whole body as a string, for callers that cannot stream it. */
+    public String read(ObjectId contentRef) {
+        GridFsResource resource = open(contentRef);
+        if (resource == null) {
+            return null;
+        }
+        try (InputStream input = resource.getInputStream()) {
+            return StreamUtils.copyToString(input, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void delete(ObjectId contentRef) {
+        gridFsTemplate.delete(Query.query(Criteria.where("_id").is(contentRef)));
+    }
+}
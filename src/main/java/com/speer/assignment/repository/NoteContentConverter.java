@@ -0,0 +1,133 @@
+package com.speer.assignment.repository;
+
+import com.speer.assignment.entity.Note;
+import com.speer.assignment.entity.NoteContent;
+import org.bson.BsonBinarySubType;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.convert.MongoConversionContext;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.MongoValueConverter;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Stores note content above {@code app.notes.compressionThresholdBytes} of UTF-8 as a
+ * user-defined {@link Binary} in the {@link NoteContent} compressed form, and everything else as
+ * a plain string. Reads accept both, so documents written before compression was enabled keep
+ * loading unchanged, and compressed content is handed out without being inflated.
+ * <p>
+ * Neither the text index nor an aggregation can read compressed content, so its distinct words
+ * are stored beside it in {@link #SEARCH_TERMS}, which the index covers with the content weight,
+ * and its first characters in {@link #PREVIEW}, which list and search pages use as the snippet.
+ */
+@Component
+public class NoteContentConverter implements MongoValueConverter<NoteContent, Object> {
+    static final byte BINARY_SUBTYPE = BsonBinarySubType.USER_DEFINED.getValue();
+    public static final String SEARCH_TERMS = "searchTerms";
+    public static final String PREVIEW = "preview";
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    @Value("${app.notes.compressionThresholdBytes:16384}")
+    private int thresholdBytes;
+
+    @Value("${app.search.maxTermsChars:65536}")
+    private int maxTermsChars;
+
+    /** Custom conversions that route {@code content} fields through {@code converter}. */
+    public static MongoCustomConversions conversions(NoteContentConverter converter) {
+        return MongoCustomConversions.create(adapter -> adapter.configurePropertyConversions(registrar -> registrar
+                .registerConverter(Note.class, "storedContent", converter)));
+    }
+
+    @Override
+    public NoteContent read(Object value, MongoConversionContext context) {
+        if (value instanceof String) {
+            return NoteContent.of((String) value);
+        }
+        if (value instanceof Binary) {
+            return NoteContent.fromCompressed(((Binary) value).getData());
+        }
+        if (value instanceof byte[]) {
+            return NoteContent.fromCompressed((byte[]) value);
+        }
+        throw new IllegalArgumentException("Unsupported stored note content: " + value.getClass().getName());
+    }
+
+    @Override
+    public Object write(NoteContent value, MongoConversionContext context) {
+        if (value.isCompressed()) {
+            // Already in stored form; saving a loaded note must not inflate and recompress it.
+            return new Binary(BINARY_SUBTYPE, value.compressedBytes());
+        }
+        return toStored(value.text());
+    }
+
+    /** The stored value for {@code content}, for updates that bypass entity mapping. */
+    public Object toStored(String content) {
+        if (content.length() * 3L < thresholdBytes
+                || content.getBytes(StandardCharsets.UTF_8).length < thresholdBytes) {
+            return content;
+        }
+        byte[] compressed = NoteContent.compress(content);
+        return compressed == null ? content : new Binary(BINARY_SUBTYPE, compressed);
+    }
+
+    /**
+     * Sets {@code content} in its stored form, with the {@link #searchFields} when it is compressed
+     * and without them otherwise.
+     *
+     * @return the content as stored, for the entity the update hands back
+     */
+    public NoteContent setContent(Update update, String content) {
+        Object stored = toStored(content);
+        update.set("content", stored);
+        if (stored instanceof Binary) {
+            searchFields(content).forEach(update::set);
+            return NoteContent.fromCompressed(((Binary) stored).getData());
+        }
+        update.unset(SEARCH_TERMS).unset(PREVIEW);
+        return NoteContent.of(content);
+    }
+
+    /** The {@link #SEARCH_TERMS} and {@link #PREVIEW} that stand in for content Mongo cannot read. */
+    public Document searchFields(String content) {
+        return new Document(SEARCH_TERMS, searchTerms(content)).append(PREVIEW, preview(content));
+    }
+
+    /** The first {@link NoteSummaries#SNIPPET_LENGTH} code points, as {@code $substrCP} would cut them. */
+    static String preview(String content) {
+        int end = 0;
+        for (int i = 0; i < NoteSummaries.SNIPPET_LENGTH && end < content.length(); i++) {
+            end += Character.charCount(content.codePointAt(end));
+        }
+        return content.substring(0, end);
+    }
+
+    /**
+     * The distinct lowercased words of {@code content} in order of first use, space-separated and
+     * cut off at {@code app.search.maxTermsChars}. A body's vocabulary is usually far smaller than
+     * the body, so the cap is rarely reached.
+     */
+    public String searchTerms(String content) {
+        Set<String> seen = new HashSet<>();
+        StringBuilder terms = new StringBuilder();
+        for (String word : NON_WORD.split(content.toLowerCase(Locale.ROOT))) {
+            if (word.isEmpty() || !seen.add(word)) {
+                continue;
+            }
+            if (terms.length() + word.length() + 1 > maxTermsChars) {
+                break;
+            }
+            terms.append(word).append(' ');
+        }
+        return terms.toString();
+    }
+}
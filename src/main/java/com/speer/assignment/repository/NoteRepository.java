@@ -2,12 +2,24 @@ package com.speer.assignment.repository;
 
 import com.speer.assignment.entity.Note;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface NoteRepository extends MongoRepository<Note, String> {
+public interface NoteRepository extends MongoRepository<Note, String>, NoteRepositoryCustom {
 
-    List<Note> findByContentContaining(String query);
+    Stream<Note> streamAllBy();
+
+    /** Every note with only its owner and share list loaded, for building the access index. */
+    @Query(value = "{}", fields = "{ 'owner': 1, 'sharedWith': 1 }")
+    Stream<Note> streamAccessBy();
+
+    /** One note with only its owner and share list loaded, for an access index miss. */
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'owner': 1, 'sharedWith': 1 }")
+    Optional<Note> findAccessById(String id);
+
+    boolean existsByIdAndOwner(String id, String owner);
 }
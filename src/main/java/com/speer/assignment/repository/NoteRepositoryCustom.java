@@ -0,0 +1,96 @@
+package com.speer.assignment.repository;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.speer.assignment.entity.Note;
+import com.speer.assignment.entity.NoteSummary;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface NoteRepositoryCustom {
+
+    /**
+     * Streams summaries of the notes owned by or shared with {@code userId} in {@code _id} order,
+     * starting strictly after {@code afterId} (or from the beginning when it is null).
+     * The returned stream holds an open Mongo cursor and must be closed by the caller.
+     */
+    Stream<NoteSummary> streamVisibleTo(String userId, String afterId, int limit);
+
+    /**
+     * Streams summaries of the notes other users shared with {@code userId} in {@code _id} order,
+     * starting strictly after {@code afterId}. The {@code {sharedWith: 1, _id: 1}} index serves
+     * both the match and the order. The stream must be closed by the caller.
+     */
+    Stream<NoteSummary> streamSharedWith(String userId, String afterId, int limit);
+
+    /**
+     * Streams every note owned by {@code owner} in {@code _id} order, fetching {@code batchSize}
+     * documents per cursor round trip. The stream must be closed by the caller.
+     */
+    Stream<Note> streamOwnedBy(String owner, int batchSize);
+
+    /**
+     * Runs a {@code $text} query over title and content, restricted to notes visible to
+     * {@code userId} and ordered by descending text score. Snippets are centred on the first
+     * search term.
+     */
+    List<NoteSummary> searchVisibleTo(String userId, String text, Pageable pageable);
+
+    /**
+     * Loads summaries of the given notes, in no particular order, with snippets centred on the
+     * first case-insensitive occurrence of {@code highlight} (or the start of the content).
+     */
+    List<NoteSummary> findSummaries(Collection<String> noteIds, String highlight);
+
+    /**
+     * Reads only the version of a note, for revalidating a client copy without loading the content.
+     *
+     * @return the version, or null when the note does not exist or has never been versioned
+     */
+    Long findVersion(String noteId);
+
+    /**
+     * Deletes the note with a single {@code findOneAndDelete} that returns only its {@code contentRef},
+     * and removes the GridFS body when there was one. Inline notes cost no extra round trip.
+     */
+    void deleteWithBody(String noteId);
+
+    /**
+     * Sets the non-null fields among {@code title} and {@code content} and increments the version, in a
+     * single {@code findAndModify}. When {@code expectedVersion} is given the update only applies if the
+     * stored version still matches.
+     *
+     * @return the updated note, or null when no note with that id, owner and version exists
+     */
+    Note updateFields(String noteId, String owner, Long expectedVersion, String title, String content);
+
+    /**
+     * Adds {@code userIds} to the note's {@code sharedWith} set with a single {@code $addToSet}.
+     *
+     * @return the number of matched notes; zero when the note does not exist or is not owned by {@code owner}
+     */
+    long shareWith(String noteId, String owner, Collection<String> userIds);
+
+    /**
+     * Removes {@code userId} from the note's {@code sharedWith} set with a single {@code $pull}.
+     *
+     * @return the number of matched notes; zero when the note does not exist or is not owned by {@code owner}
+     */
+    long unshareWith(String noteId, String owner, String userId);
+
+    /**
+     * Shares every note in {@code noteIds} owned by {@code owner} with all of {@code userIds} in one
+     * unordered bulk write.
+     */
+    BulkWriteResult shareAllWith(Collection<String> noteIds, String owner, Collection<String> userIds);
+
+    /**
+     * Inserts {@code notes} with one unordered bulk write, so a bad document does not stop the rest.
+     *
+     * @return the write errors, each carrying the index of the failed note within {@code notes}
+     */
+    List<BulkWriteError> insertUnordered(List<Note> notes);
+}
@@ -0,0 +1,199 @@
+package com.speer.assignment.repository;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.speer.assignment.entity.Note;
+import com.speer.assignment.entity.NoteContent;
+import com.speer.assignment.entity.NoteSummary;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.StreamUtils;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class NoteRepositoryImpl implements NoteRepositoryCustom {
+    private final MongoTemplate mongoTemplate;
+    private final NoteContentConverter contentConverter;
+    private final NoteBodyStore noteBodyStore;
+
+    public NoteRepositoryImpl(MongoTemplate mongoTemplate, NoteContentConverter contentConverter,
+                              NoteBodyStore noteBodyStore) {
+        this.mongoTemplate = mongoTemplate;
+        this.contentConverter = contentConverter;
+        this.noteBodyStore = noteBodyStore;
+    }
+
+    @Override
+    public Stream<NoteSummary> streamVisibleTo(String userId, String afterId, int limit) {
+        // Each $or branch is served by its own {field: 1, _id: 1} index, so the _id bound and
+        // sort are resolved inside the index and a page never skips over earlier documents.
+        Criteria filter = afterId == null ? new Criteria() : Criteria.where("_id").gt(new ObjectId(afterId));
+
+        return StreamUtils.createStreamFromIterator(mongoTemplate.aggregateStream(
+                NoteSummaries.page(visibleTo(filter, userId), limit), NoteSummary.class));
+    }
+
+    @Override
+    public Stream<NoteSummary> streamSharedWith(String userId, String afterId, int limit) {
+        return StreamUtils.createStreamFromIterator(mongoTemplate.aggregateStream(
+                NoteSummaries.page(sharedWith(userId, afterId), limit), NoteSummary.class));
+    }
+
+    @Override
+    public Stream<Note> streamOwnedBy(String owner, int batchSize) {
+        Query query = new Query(Criteria.where("owner").is(owner))
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .cursorBatchSize(batchSize);
+
+        return mongoTemplate.stream(query, Note.class);
+    }
+
+    @Override
+    public List<NoteSummary> searchVisibleTo(String userId, String text, Pageable pageable) {
+        // The text index drives the plan; the visibility filter only sees documents that matched.
+        return mongoTemplate.aggregate(NoteSummaries.search(text, visibleTo(userId), pageable), NoteSummary.class)
+                .getMappedResults();
+    }
+
+    @Override
+    public List<NoteSummary> findSummaries(Collection<String> noteIds, String highlight) {
+        return mongoTemplate.aggregate(NoteSummaries.byIds(noteIds, highlight), NoteSummary.class)
+                .getMappedResults();
+    }
+
+    @Override
+    public Long findVersion(String noteId) {
+        Query query = new Query(Criteria.where("_id").is(noteId));
+        query.fields().include("version");
+        Note note = mongoTemplate.findOne(query, Note.class);
+        return note == null ? null : note.getVersion();
+    }
+
+    @Override
+    public void deleteWithBody(String noteId) {
+        Note deleted = mongoTemplate.findAndRemove(contentRefOf(noteId), Note.class);
+        if (deleted != null && deleted.getContentRef() != null) {
+            noteBodyStore.delete(deleted.getContentRef());
+        }
+    }
+
+    @Override
+    public Note updateFields(String noteId, String owner, Long expectedVersion, String title, String content) {
+        Query query = ownedBy(noteId, owner);
+        if (expectedVersion != null) {
+            query.addCriteria(Criteria.where("version").is(expectedVersion));
+        }
+        Update update = new Update().inc("version", 1);
+        if (title != null) {
+            update.set("title", title);
+        }
+        ObjectId contentRef = null;
+        NoteContent stored = null;
+        if (content != null && noteBodyStore.spills(content)) {
+            contentRef = noteBodyStore.store(noteId, content);
+            update.set("contentRef", contentRef).unset("content");
+            contentConverter.searchFields(content).forEach(update::set);
+        } else if (content != null) {
+            stored = contentConverter.setContent(update, content);
+            update.unset("contentRef");
+        }
+
+        // The pre-image tells whether a GridFS body was replaced, so inline notes need no extra round trip.
+        Note previous = mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(false), Note.class);
+        if (previous == null) {
+            if (contentRef != null) {
+                noteBodyStore.delete(contentRef);
+            }
+            return null;
+        }
+        if (content != null && previous.getContentRef() != null) {
+            noteBodyStore.delete(previous.getContentRef());
+        }
+        return applied(previous, title, stored, contentRef);
+    }
+
+    /**
+     * The note as an update left it, rebuilt from the pre-image its findAndModify returned. The new
+     * body is either {@code content} in its stored form or a GridFS {@code contentRef}; both are
+     * null when the update left the body alone.
+     */
+    static Note applied(Note previous, String title, NoteContent content, ObjectId contentRef) {
+        previous.setVersion(previous.getVersion() == null ? 1L : previous.getVersion() + 1);
+        if (title != null) {
+            previous.setTitle(title);
+        }
+        if (content != null || contentRef != null) {
+            previous.setContentRef(contentRef);
+            previous.setStoredContent(content);
+        }
+        return previous;
+    }
+
+    @Override
+    public long shareWith(String noteId, String owner, Collection<String> userIds) {
+        return mongoTemplate.updateFirst(ownedBy(noteId, owner),
+                new Update().addToSet("sharedWith").each(userIds.toArray()), Note.class).getMatchedCount();
+    }
+
+    @Override
+    public long unshareWith(String noteId, String owner, String userId) {
+        return mongoTemplate.updateFirst(ownedBy(noteId, owner),
+                new Update().pull("sharedWith", userId), Note.class).getMatchedCount();
+    }
+
+    @Override
+    public BulkWriteResult shareAllWith(Collection<String> noteIds, String owner, Collection<String> userIds) {
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Note.class);
+        Update update = new Update().addToSet("sharedWith").each(userIds.toArray());
+        for (String noteId : noteIds) {
+            operations.updateOne(ownedBy(noteId, owner), update);
+        }
+        return operations.execute();
+    }
+
+    @Override
+    public List<BulkWriteError> insertUnordered(List<Note> notes) {
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Note.class).insert(notes).execute();
+            return Collections.emptyList();
+        } catch (BulkOperationException e) {
+            return e.getErrors();
+        }
+    }
+
+    static Query contentRefOf(String noteId) {
+        Query query = new Query(Criteria.where("_id").is(noteId));
+        query.fields().include("contentRef");
+        return query;
+    }
+
+    private static Query ownedBy(String noteId, String owner) {
+        return new Query(Criteria.where("_id").is(noteId).and("owner").is(owner));
+    }
+
+    private static Criteria sharedWith(String userId, String afterId) {
+        Criteria criteria = Criteria.where("sharedWith").is(userId);
+        return afterId == null ? criteria : criteria.and("_id").gt(new ObjectId(afterId));
+    }
+
+    private static Criteria visibleTo(String userId) {
+        return visibleTo(new Criteria(), userId);
+    }
+
+    private static Criteria visibleTo(Criteria criteria, String userId) {
+        return criteria.orOperator(
+                Criteria.where("owner").is(userId),
+                Criteria.where("sharedWith").is(userId));
+    }
+}
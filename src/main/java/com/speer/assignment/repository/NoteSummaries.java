@@ -0,0 +1,94 @@
+package com.speer.assignment.repository;
+
+import com.speer.assignment.entity.Note;
+import org.bson.Document;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Aggregations that return {@link com.speer.assignment.entity.NoteSummary} rows. The server cuts
+ * the content down to a snippet, so result pages never carry full note bodies or share lists
+ * over the wire. Shared by the blocking and the reactive repository.
+ * <p>
+ * Compressed content cannot be cut on the server, so its snippet is the
+ * {@link NoteContentConverter#PREVIEW} stored with it: the start of the content, never centred on
+ * a match. Pages therefore never carry or inflate a compressed body.
+ */
+final class NoteSummaries {
+    static final int SNIPPET_LENGTH = 200;
+    /** Characters of context kept before the first match when the snippet is centred on a term. */
+    private static final int SNIPPET_LEAD = 40;
+
+    private NoteSummaries() {
+    }
+
+    /** One keyset page in {@code _id} order; the snippet is the start of the content. */
+    static TypedAggregation<Note> page(Criteria filter, int limit) {
+        return Aggregation.newAggregation(Note.class,
+                Aggregation.match(filter),
+                Aggregation.sort(Sort.Direction.ASC, "_id"),
+                Aggregation.limit(limit),
+                project(null));
+    }
+
+    /**
+     * A {@code $text} search page by descending score. The snippet is taken around the first
+     * occurrence of the first search term.
+     */
+    static TypedAggregation<Note> search(String text, Criteria filter, Pageable pageable) {
+        return Aggregation.newAggregation(Note.class,
+                Aggregation.match(TextCriteria.forDefaultLanguage().matching(text)),
+                Aggregation.match(filter),
+                context -> new Document("$sort", new Document("score", new Document("$meta", "textScore"))),
+                Aggregation.skip(pageable.getOffset()),
+                Aggregation.limit(pageable.getPageSize()),
+                project(firstTerm(text)));
+    }
+
+    /** The given notes in no particular order, with the snippet taken around {@code highlight}. */
+    static TypedAggregation<Note> byIds(Collection<String> ids, String highlight) {
+        return Aggregation.newAggregation(Note.class,
+                Aggregation.match(Criteria.where("_id").in(ids)),
+                project(highlight));
+    }
+
+    private static AggregationOperation project(String highlight) {
+        Document isString = new Document("$eq", Arrays.asList(new Document("$type", "$content"), "string"));
+        Document content = new Document("$cond", Arrays.asList(isString, "$content", ""));
+        Object start = 0;
+        if (highlight != null && !highlight.isEmpty()) {
+            // $indexOfCP yields -1 when there is no match, which the $max turns into a start of 0.
+            Document position = new Document("$indexOfCP",
+                    Arrays.asList(new Document("$toLower", content), highlight.toLowerCase(Locale.ROOT)));
+            start = new Document("$max", Arrays.asList(0, new Document("$subtract", Arrays.asList(position, SNIPPET_LEAD))));
+        }
+        Document snippet = new Document("$cond", Arrays.asList(isString,
+                new Document("$substrCP", Arrays.asList(content, start, SNIPPET_LENGTH)),
+                new Document("$ifNull", Arrays.asList("$" + NoteContentConverter.PREVIEW, ""))));
+
+        return context -> new Document("$project", new Document("owner", 1)
+                .append("title", 1)
+                .append("version", 1)
+                .append("snippet", snippet));
+    }
+
+    /** The first plain word of a {@code $text} search string, without quotes or negation. */
+    static String firstTerm(String text) {
+        for (String term : text.trim().split("\\s+")) {
+            String word = term.replace("\"", "");
+            if (!word.isEmpty() && !word.startsWith("-")) {
+                return word;
+            }
+        }
+        return null;
+    }
+}
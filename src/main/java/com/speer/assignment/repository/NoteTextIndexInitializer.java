@@ -0,0 +1,51 @@
+package com.speer.assignment.repository;
+
+import com.mongodb.client.MongoCollection;
+import com.speer.assignment.entity.Note;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.TextIndexDefinition;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the weighted text index over note title and content. Compressed and spilled content
+ * is covered through its {@link NoteContentConverter#SEARCH_TERMS}, at the content weight.
+ * Weights come from configuration, so a change in weights replaces the existing index: a
+ * collection can hold only one text index. Run at startup by {@link MongoIndexManager}.
+ */
+@Component
+public class NoteTextIndexInitializer {
+    static final String INDEX_NAME = "note_text";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.search.titleWeight:3}")
+    private int titleWeight;
+
+    @Value("${app.search.contentWeight:1}")
+    private int contentWeight;
+
+    public NoteTextIndexInitializer(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public void ensureTextIndex() {
+        Document expectedWeights = new Document("title", titleWeight).append("content", contentWeight)
+                .append(NoteContentConverter.SEARCH_TERMS, contentWeight);
+        MongoCollection<Document> notes = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Note.class));
+        for (Document index : notes.listIndexes()) {
+            Document weights = index.get("weights", Document.class);
+            if (weights != null && !(INDEX_NAME.equals(index.getString("name")) && weights.equals(expectedWeights))) {
+                notes.dropIndex(index.getString("name"));
+            }
+        }
+
+        mongoTemplate.indexOps(Note.class).ensureIndex(TextIndexDefinition.builder()
+                .named(INDEX_NAME)
+                .onField("title", (float) titleWeight)
+                .onField("content", (float) contentWeight)
+                .onField(NoteContentConverter.SEARCH_TERMS, (float) contentWeight)
+                .build());
+    }
+}
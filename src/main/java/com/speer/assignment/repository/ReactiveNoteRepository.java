@@ -0,0 +1,15 @@
+package com.speer.assignment.repository;
+
+import com.speer.assignment.entity.Note;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking access to notes, used by the handlers of the {@code reactive} profile.
+ */
+@Repository
+public interface ReactiveNoteRepository extends ReactiveMongoRepository<Note, String>, ReactiveNoteRepositoryCustom {
+
+    Mono<Boolean> existsByIdAndOwner(String id, String owner);
+}
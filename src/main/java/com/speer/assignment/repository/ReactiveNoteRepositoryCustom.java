@@ -0,0 +1,70 @@
+package com.speer.assignment.repository;
+
+import com.mongodb.client.result.UpdateResult;
+import com.speer.assignment.entity.Note;
+import com.speer.assignment.entity.NoteSummary;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+/**
+ * Reactive counterparts of the {@link NoteRepositoryCustom} queries. The returned fluxes pull from
+ * the Mongo cursor only as fast as the subscriber requests.
+ */
+public interface ReactiveNoteRepositoryCustom {
+
+    /**
+     * @see NoteRepositoryCustom#streamVisibleTo(String, String, int)
+     */
+    Flux<NoteSummary> findVisibleTo(String userId, String afterId, int limit);
+
+    /**
+     * @see NoteRepositoryCustom#streamSharedWith(String, String, int)
+     */
+    Flux<NoteSummary> findSharedWith(String userId, String afterId, int limit);
+
+    /**
+     * @see NoteRepositoryCustom#streamOwnedBy(String, int)
+     */
+    Flux<Note> findOwnedBy(String owner, int batchSize);
+
+    /**
+     * @see NoteRepositoryCustom#searchVisibleTo(String, String, Pageable)
+     */
+    Flux<NoteSummary> searchVisibleTo(String userId, String text, Pageable pageable);
+
+    /**
+     * @see NoteRepositoryCustom#updateFields(String, String, Long, String, String)
+     * @return the updated note, or an empty mono when no note with that id, owner and version exists
+     */
+    Mono<Note> updateFields(String noteId, String owner, Long expectedVersion, String title, String content);
+
+    /**
+     * @see NoteRepositoryCustom#findVersion(String)
+     * @return the version, or an empty mono when the note does not exist or has never been versioned
+     */
+    Mono<Long> findVersion(String noteId);
+
+    /**
+     * @see NoteRepositoryCustom#deleteWithBody(String)
+     */
+    Mono<Void> deleteWithBody(String noteId);
+
+    /**
+     * @see NoteRepositoryCustom#shareWith(String, String, Collection)
+     */
+    Mono<Long> shareWith(String noteId, String owner, Collection<String> userIds);
+
+    /**
+     * @see NoteRepositoryCustom#unshareWith(String, String, String)
+     */
+    Mono<Long> unshareWith(String noteId, String owner, String userId);
+
+    /**
+     * Shares every note in {@code noteIds} owned by {@code owner} with all of {@code userIds} in one
+     * multi-document {@code $addToSet} update.
+     */
+    Mono<UpdateResult> shareAllWith(Collection<String> noteIds, String owner, Collection<String> userIds);
+}
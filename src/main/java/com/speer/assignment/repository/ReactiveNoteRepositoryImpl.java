@@ -0,0 +1,157 @@
+package com.speer.assignment.repository;
+
+import com.mongodb.client.result.UpdateResult;
+import com.speer.assignment.entity.Note;
+import com.speer.assignment.entity.NoteContent;
+import com.speer.assignment.entity.NoteSummary;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Collection;
+
+public class ReactiveNoteRepositoryImpl implements ReactiveNoteRepositoryCustom {
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final NoteContentConverter contentConverter;
+    private final NoteBodyStore noteBodyStore;
+
+    public ReactiveNoteRepositoryImpl(ReactiveMongoTemplate mongoTemplate, NoteContentConverter contentConverter,
+                                      NoteBodyStore noteBodyStore) {
+        this.mongoTemplate = mongoTemplate;
+        this.contentConverter = contentConverter;
+        this.noteBodyStore = noteBodyStore;
+    }
+
+    @Override
+    public Flux<NoteSummary> findVisibleTo(String userId, String afterId, int limit) {
+        Criteria filter = afterId == null ? new Criteria() : Criteria.where("_id").gt(new ObjectId(afterId));
+
+        return mongoTemplate.aggregate(NoteSummaries.page(visibleTo(filter, userId), limit), NoteSummary.class);
+    }
+
+    @Override
+    public Flux<NoteSummary> findSharedWith(String userId, String afterId, int limit) {
+        Criteria filter = Criteria.where("sharedWith").is(userId);
+        if (afterId != null) {
+            filter = filter.and("_id").gt(new ObjectId(afterId));
+        }
+
+        return mongoTemplate.aggregate(NoteSummaries.page(filter, limit), NoteSummary.class);
+    }
+
+    @Override
+    public Flux<Note> findOwnedBy(String owner, int batchSize) {
+        Query query = new Query(Criteria.where("owner").is(owner))
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .cursorBatchSize(batchSize);
+
+        return mongoTemplate.find(query, Note.class);
+    }
+
+    @Override
+    public Flux<NoteSummary> searchVisibleTo(String userId, String text, Pageable pageable) {
+        return mongoTemplate.aggregate(NoteSummaries.search(text, visibleTo(userId), pageable), NoteSummary.class);
+    }
+
+    @Override
+    public Mono<Note> updateFields(String noteId, String owner, Long expectedVersion, String title, String content) {
+        Query query = ownedBy(noteId, owner);
+        if (expectedVersion != null) {
+            query.addCriteria(Criteria.where("version").is(expectedVersion));
+        }
+        Update update = new Update().inc("version", 1);
+        if (title != null) {
+            update.set("title", title);
+        }
+        // As in NoteRepositoryImpl, the pre-image tells whether a GridFS body was replaced.
+        FindAndModifyOptions preImage = FindAndModifyOptions.options().returnNew(false);
+        if (content == null) {
+            return mongoTemplate.findAndModify(query, update, preImage, Note.class)
+                    .map(previous -> NoteRepositoryImpl.applied(previous, title, null, null));
+        }
+        if (!noteBodyStore.spills(content)) {
+            NoteContent stored = contentConverter.setContent(update, content);
+            update.unset("contentRef");
+            return mongoTemplate.findAndModify(query, update, preImage, Note.class)
+                    .flatMap(previous -> dropReplacedBody(previous)
+                            .thenReturn(NoteRepositoryImpl.applied(previous, title, stored, null)));
+        }
+
+        update.unset("content");
+        contentConverter.searchFields(content).forEach(update::set);
+        // The body store is blocking, so its calls run off the event loop.
+        return Mono.fromCallable(() -> noteBodyStore.store(noteId, content))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(contentRef -> mongoTemplate.findAndModify(query,
+                                update.set("contentRef", contentRef), preImage, Note.class)
+                        .flatMap(previous -> dropReplacedBody(previous)
+                                .thenReturn(NoteRepositoryImpl.applied(previous, title, null, contentRef)))
+                        .switchIfEmpty(blocking(() -> noteBodyStore.delete(contentRef)).then(Mono.empty())));
+    }
+
+    @Override
+    public Mono<Long> findVersion(String noteId) {
+        Query query = new Query(Criteria.where("_id").is(noteId));
+        query.fields().include("version");
+        return mongoTemplate.findOne(query, Note.class).mapNotNull(Note::getVersion);
+    }
+
+    @Override
+    public Mono<Void> deleteWithBody(String noteId) {
+        return mongoTemplate.findAndRemove(NoteRepositoryImpl.contentRefOf(noteId), Note.class)
+                .flatMap(this::dropReplacedBody);
+    }
+
+    private Mono<Void> dropReplacedBody(Note previous) {
+        ObjectId replaced = previous.getContentRef();
+        return replaced == null ? Mono.empty() : blocking(() -> noteBodyStore.delete(replaced));
+    }
+
+    private static Mono<Void> blocking(Runnable action) {
+        return Mono.fromRunnable(action).subscribeOn(Schedulers.boundedElastic()).then();
+    }
+
+    @Override
+    public Mono<Long> shareWith(String noteId, String owner, Collection<String> userIds) {
+        return mongoTemplate.updateFirst(ownedBy(noteId, owner),
+                new Update().addToSet("sharedWith").each(userIds.toArray()), Note.class)
+                .map(UpdateResult::getMatchedCount);
+    }
+
+    @Override
+    public Mono<Long> unshareWith(String noteId, String owner, String userId) {
+        return mongoTemplate.updateFirst(ownedBy(noteId, owner),
+                new Update().pull("sharedWith", userId), Note.class)
+                .map(UpdateResult::getMatchedCount);
+    }
+
+    @Override
+    public Mono<UpdateResult> shareAllWith(Collection<String> noteIds, String owner, Collection<String> userIds) {
+        // The reactive template has no bulk API here; the update is the same for every note, so a
+        // single updateMulti over the id set does the same work in one round trip.
+        Query query = new Query(Criteria.where("_id").in(noteIds).and("owner").is(owner));
+        return mongoTemplate.updateMulti(query, new Update().addToSet("sharedWith").each(userIds.toArray()), Note.class);
+    }
+
+    private static Query ownedBy(String noteId, String owner) {
+        return new Query(Criteria.where("_id").is(noteId).and("owner").is(owner));
+    }
+
+    private static Criteria visibleTo(String userId) {
+        return visibleTo(new Criteria(), userId);
+    }
+
+    private static Criteria visibleTo(Criteria criteria, String userId) {
+        return criteria.orOperator(
+                Criteria.where("owner").is(userId),
+                Criteria.where("sharedWith").is(userId));
+    }
+}
@@ -0,0 +1,14 @@
+package com.speer.assignment.repository;
+
+import com.speer.assignment.entity.RefreshToken;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.Optional;
+
+public interface RefreshTokenRepository extends MongoRepository<RefreshToken, String> {
+
+    /** Atomically removes and returns the token, so each refresh token can be redeemed only once. */
+    Optional<RefreshToken> deleteByTokenHash(String tokenHash);
+
+    long deleteByUserId(String userId);
+}
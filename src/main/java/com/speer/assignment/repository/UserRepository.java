@@ -3,8 +3,12 @@ package com.speer.assignment.repository;
 import com.speer.assignment.entity.User;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends MongoRepository<User, String> {
     Optional<User> findByUsername(String username);
+
+    List<User> findByUsernameIn(Collection<String> usernames);
 }
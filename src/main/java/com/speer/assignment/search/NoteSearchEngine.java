@@ -0,0 +1,29 @@
+package com.speer.assignment.search;
+
+import com.speer.assignment.entity.Note;
+import com.speer.assignment.entity.NoteSummary;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Backs {@code /api/notes/search}. Implementations that keep their own index are told about every
+ * note write through {@link #index(Note)} and {@link #remove(String)}. Sharing changes are
+ * reported separately, because those writes never load the note.
+ */
+public interface NoteSearchEngine {
+
+    /** Returns one page of summaries, with snippets centred on the match where possible. */
+    List<NoteSummary> search(String userId, String query, Pageable pageable);
+
+    void index(Note note);
+
+    void remove(String noteId);
+
+    /** Called after {@code userIds} were added to a note, if it is owned by {@code owner}. */
+    void shared(String noteId, String owner, Collection<String> userIds);
+
+    /** Called after {@code userId} was removed from a note, if it is owned by {@code owner}. */
+    void unshared(String noteId, String owner, String userId);
+}
@@ -0,0 +1,46 @@
+package com.speer.assignment.search;
+
+import com.speer.assignment.entity.Note;
+import com.speer.assignment.entity.NoteSummary;
+import com.speer.assignment.repository.NoteRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Word search through the Mongo {@code $text} index. Mongo maintains the index, so writes need no
+ * bookkeeping here.
+ */
+@Component
+@ConditionalOnProperty(name = "app.search.engine", havingValue = "text", matchIfMissing = true)
+public class TextIndexSearchEngine implements NoteSearchEngine {
+    private final NoteRepository noteRepository;
+
+    public TextIndexSearchEngine(NoteRepository noteRepository) {
+        this.noteRepository = noteRepository;
+    }
+
+    @Override
+    public List<NoteSummary> search(String userId, String query, Pageable pageable) {
+        return noteRepository.searchVisibleTo(userId, query, pageable);
+    }
+
+    @Override
+    public void index(Note note) {
+    }
+
+    @Override
+    public void remove(String noteId) {
+    }
+
+    @Override
+    public void shared(String noteId, String owner, Collection<String> userIds) {
+    }
+
+    @Override
+    public void unshared(String noteId, String owner, String userId) {
+    }
+}
@@ -0,0 +1,235 @@
+package com.speer.assignment.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Case-insensitive substring index. Every document gets an int ordinal and each trigram of its
+ * lowercased text maps to a sorted posting list of ordinals. A query intersects the posting lists
+ * of its trigrams and then checks each candidate against the stored text, so trigrams that
+ * co-occur without being adjacent never produce false matches. Queries shorter than
+ * {@value #MIN_QUERY_LENGTH} characters have no trigram to look up and match nothing.
+ * <p>
+ * Ordinals are handed out in increasing order, so posting lists only ever grow at the tail.
+ * Updates and deletes tombstone the old ordinal. The lists are compacted once tombstones
+ * outnumber live documents.
+ */
+public class TrigramIndex {
+    public static final int MIN_QUERY_LENGTH = 3;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MIN_COMPACTION_SIZE = 4096;
+    private static final char FIELD_SEPARATOR = '\u0000';
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final Map<Long, PostingList> postings = new HashMap<>();
+    private final BitSet live = new BitSet();
+
+    private String[] ids = new String[INITIAL_CAPACITY];
+    private String[] texts = new String[INITIAL_CAPACITY];
+    private int nextOrdinal;
+
+    /**
+     * Adds or replaces the document with the given id. The fields are indexed independently, so a
+     * match never spans two of them.
+     */
+    public void put(String id, String... fields) {
+        String text = normalize(fields);
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            addLocked(id, text);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of documents containing {@code query}, newest first, skipping the first
+     * {@code offset} matches accepted by {@code filter}. The filter runs before the text check,
+     * which is the more expensive of the two.
+     */
+    public List<String> search(String query, Predicate<String> filter, int offset, int limit) {
+        if (query == null || query.length() < MIN_QUERY_LENGTH || limit <= 0) {
+            return Collections.emptyList();
+        }
+        String needle = query.toLowerCase(Locale.ROOT);
+        List<String> result = new ArrayList<>(Math.min(limit, 64));
+
+        lock.readLock().lock();
+        try {
+            int[] candidates = candidates(needle);
+            int skipped = 0;
+            for (int i = candidates.length - 1; i >= 0 && result.size() < limit; i--) {
+                int ordinal = candidates[i];
+                if (!live.get(ordinal) || !filter.test(ids[ordinal]) || !texts[ordinal].contains(needle)) {
+                    continue;
+                }
+                if (skipped < offset) {
+                    skipped++;
+                } else {
+                    result.add(ids[ordinal]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /** Intersects the posting lists of every trigram in {@code needle}, smallest first. */
+    private int[] candidates(String needle) {
+        Set<Long> keys = new HashSet<>();
+        for (int i = 0; i + 3 <= needle.length(); i++) {
+            keys.add(trigram(needle, i));
+        }
+        PostingList[] lists = new PostingList[keys.size()];
+        int n = 0;
+        for (Long key : keys) {
+            PostingList list = postings.get(key);
+            if (list == null) {
+                return new int[0];
+            }
+            lists[n++] = list;
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+        int[] current = Arrays.copyOf(lists[0].ordinals, lists[0].size);
+        int currentSize = current.length;
+        for (int l = 1; l < lists.length && currentSize > 0; l++) {
+            currentSize = intersect(current, currentSize, lists[l]);
+        }
+        return currentSize == current.length ? current : Arrays.copyOf(current, currentSize);
+    }
+
+    /** Keeps the entries of {@code current} that also occur in {@code other}; returns the new size. */
+    private static int intersect(int[] current, int size, PostingList other) {
+        int kept = 0;
+        int from = 0;
+        for (int i = 0; i < size; i++) {
+            int pos = Arrays.binarySearch(other.ordinals, from, other.size, current[i]);
+            if (pos >= 0) {
+                current[kept++] = current[i];
+                from = pos + 1;
+            } else {
+                from = -pos - 1;
+            }
+            if (from >= other.size) {
+                break;
+            }
+        }
+        return kept;
+    }
+
+    private void addLocked(String id, String text) {
+        int ordinal = nextOrdinal++;
+        if (ordinal == ids.length) {
+            ids = Arrays.copyOf(ids, ordinal * 2);
+            texts = Arrays.copyOf(texts, ordinal * 2);
+        }
+        ids[ordinal] = id;
+        texts[ordinal] = text;
+        live.set(ordinal);
+        ordinals.put(id, ordinal);
+
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            postings.computeIfAbsent(trigram(text, i), k -> new PostingList()).append(ordinal);
+        }
+    }
+
+    private void removeLocked(String id) {
+        Integer ordinal = ordinals.remove(id);
+        if (ordinal != null) {
+            live.clear(ordinal);
+            texts[ordinal] = null;
+        }
+    }
+
+    private void compactIfNeeded() {
+        int liveCount = ordinals.size();
+        int dead = nextOrdinal - liveCount;
+        if (dead < MIN_COMPACTION_SIZE || dead <= liveCount) {
+            return;
+        }
+        String[] oldIds = ids;
+        String[] oldTexts = texts;
+        int oldCount = nextOrdinal;
+
+        ids = new String[Math.max(INITIAL_CAPACITY, liveCount * 2)];
+        texts = new String[ids.length];
+        nextOrdinal = 0;
+        ordinals.clear();
+        postings.clear();
+        live.clear();
+        for (int ordinal = 0; ordinal < oldCount; ordinal++) {
+            if (oldTexts[ordinal] != null) {
+                addLocked(oldIds[ordinal], oldTexts[ordinal]);
+            }
+        }
+    }
+
+    private static String normalize(String... fields) {
+        StringBuilder text = new StringBuilder();
+        for (String field : fields) {
+            if (field == null) {
+                continue;
+            }
+            if (text.length() > 0) {
+                text.append(FIELD_SEPARATOR);
+            }
+            text.append(field.toLowerCase(Locale.ROOT));
+        }
+        return text.toString();
+    }
+
+    private static long trigram(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+
+    private static final class PostingList {
+        private int[] ordinals = new int[4];
+        private int size;
+
+        void append(int ordinal) {
+            // The same trigram can recur further along the text; ordinals arrive in ascending order.
+            if (size > 0 && ordinals[size - 1] == ordinal) {
+                return;
+            }
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            ordinals[size++] = ordinal;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.speer.assignment.search;
+
+import com.speer.assignment.entity.Note;
+import com.speer.assignment.entity.NoteSummary;
+import com.speer.assignment.repository.NoteBodyStore;
+import com.speer.assignment.repository.NoteRepository;
+import com.speer.assignment.security.NoteAccessIndex;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Substring search over title and content using an in-memory {@link TrigramIndex}; queries shorter
+ * than {@link TrigramIndex#MIN_QUERY_LENGTH} characters match nothing. The index is rebuilt from
+ * Mongo at startup. It holds the lowercased text of every note, so memory grows with the total
+ * size of the notes. Bodies spilled to {@link NoteBodyStore} are read back to be indexed, so
+ * indexing a spilled note blocks on GridFS. Matches are filtered through {@link NoteAccessIndex},
+ * so the engine keeps no access lists of its own.
+ */
+@Component
+@ConditionalOnProperty(name = "app.search.engine", havingValue = "trigram")
+public class TrigramSearchEngine implements NoteSearchEngine {
+    private final NoteRepository noteRepository;
+    private final NoteAccessIndex noteAccessIndex;
+    private final NoteBodyStore noteBodyStore;
+    private final TrigramIndex index = new TrigramIndex();
+
+    public TrigramSearchEngine(NoteRepository noteRepository, NoteAccessIndex noteAccessIndex,
+                               NoteBodyStore noteBodyStore) {
+        this.noteRepository = noteRepository;
+        this.noteAccessIndex = noteAccessIndex;
+        this.noteBodyStore = noteBodyStore;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        try (Stream<Note> notes = noteRepository.streamAllBy()) {
+            notes.forEach(this::index);
+        }
+    }
+
+    @Override
+    public List<NoteSummary> search(String userId, String query, Pageable pageable) {
+        List<String> ids = index.search(query, id -> noteAccessIndex.canRead(id, userId),
+                (int) pageable.getOffset(), pageable.getPageSize());
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<String, NoteSummary> summariesById = new HashMap<>();
+        for (NoteSummary summary : noteRepository.findSummaries(ids, query)) {
+            summariesById.put(summary.getId(), summary);
+        }
+        List<NoteSummary> summaries = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            NoteSummary summary = summariesById.get(id);
+            if (summary != null) {
+                summaries.add(summary);
+            }
+        }
+        return summaries;
+    }
+
+    @Override
+    public void index(Note note) {
+        String content = note.getContentRef() == null ? note.getContent() : noteBodyStore.read(note.getContentRef());
+        index.put(note.getId(), note.getTitle(), content);
+    }
+
+    @Override
+    public void remove(String noteId) {
+        index.remove(noteId);
+    }
+
+    @Override
+    public void shared(String noteId, String owner, Collection<String> userIds) {
+    }
+
+    @Override
+    public void unshared(String noteId, String owner, String userId) {
+    }
+}
@@ -0,0 +1,39 @@
+package com.speer.assignment.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Authenticates {@code Authorization: Bearer} requests through a {@link JwtAuthenticator}.
+ * Requests without a valid token continue unauthenticated, and the security chain decides
+ * whether to reject them.
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+    private final JwtAuthenticator authenticator;
+
+    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, long cacheSize, MeterRegistry meterRegistry) {
+        this.authenticator = new JwtAuthenticator(tokenProvider, cacheSize, meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Authentication authentication = authenticator.authenticateHeader(request.getHeader(HttpHeaders.AUTHORIZATION));
+        if (authentication != null) {
+            SecurityContext context = SecurityContextHolder.createEmptyContext();
+            context.setAuthentication(authentication);
+            SecurityContextHolder.setContext(context);
+        }
+        filterChain.doFilter(request, response);
+    }
+}
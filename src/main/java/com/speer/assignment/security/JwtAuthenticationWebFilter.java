@@ -0,0 +1,32 @@
+package com.speer.assignment.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@link JwtAuthenticationFilter}. A valid bearer token puts its
+ * authentication into the reactive security context; anything else continues unauthenticated.
+ */
+public class JwtAuthenticationWebFilter implements WebFilter {
+    private final JwtAuthenticator authenticator;
+
+    public JwtAuthenticationWebFilter(JwtTokenProvider tokenProvider, long cacheSize, MeterRegistry meterRegistry) {
+        this.authenticator = new JwtAuthenticator(tokenProvider, cacheSize, meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        Authentication authentication =
+                authenticator.authenticateHeader(exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION));
+        if (authentication == null) {
+            return chain.filter(exchange);
+        }
+        return chain.filter(exchange).contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
+    }
+}
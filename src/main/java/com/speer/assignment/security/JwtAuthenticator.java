@@ -0,0 +1,106 @@
+package com.speer.assignment.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turns bearer tokens into authentications for both the servlet and the reactive security chain.
+ * A token is parsed and its signature checked once. The resulting authentication is then cached
+ * until the token's own expiry, so later requests with the same token skip the HMAC entirely.
+ * Every bearer token seen is counted as {@code auth.jwt.validations}, tagged {@code cached},
+ * {@code valid} or {@code invalid}.
+ */
+public class JwtAuthenticator {
+    static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtTokenProvider tokenProvider;
+    private final Cache<String, VerifiedToken> verifiedTokens;
+    private final Counter cachedValidations;
+    private final Counter validValidations;
+    private final Counter invalidValidations;
+
+    public JwtAuthenticator(JwtTokenProvider tokenProvider, long cacheSize, MeterRegistry meterRegistry) {
+        this.tokenProvider = tokenProvider;
+        this.cachedValidations = validationCounter(meterRegistry, "cached");
+        this.validValidations = validationCounter(meterRegistry, "valid");
+        this.invalidValidations = validationCounter(meterRegistry, "invalid");
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String token, VerifiedToken verified, long currentTime) {
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, verified.expiresAt - System.currentTimeMillis()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, VerifiedToken verified, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, VerifiedToken verified, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * @return the authentication for an {@code Authorization} header value, or null when the header
+     * is missing, not a bearer token, or carries an invalid or expired token
+     */
+    public Authentication authenticateHeader(String header) {
+        if (header == null || !header.startsWith(BEARER_PREFIX)) {
+            return null;
+        }
+        return authenticate(header.substring(BEARER_PREFIX.length()));
+    }
+
+    public Authentication authenticate(String token) {
+        VerifiedToken verified = verifiedTokens.getIfPresent(token);
+        if (verified != null && verified.expiresAt > System.currentTimeMillis()) {
+            cachedValidations.increment();
+            return verified.authentication;
+        }
+
+        Claims claims;
+        try {
+            claims = tokenProvider.parseToken(token);
+        } catch (JwtException | IllegalArgumentException ex) {
+            invalidValidations.increment();
+            return null;
+        }
+        validValidations.increment();
+        UserPrincipal principal = tokenProvider.getPrincipal(claims);
+        Authentication authentication =
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+        verifiedTokens.put(token, new VerifiedToken(authentication, claims.getExpiration().getTime()));
+        return authentication;
+    }
+
+    private static Counter validationCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("auth.jwt.validations")
+                .description("Bearer tokens checked, by outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static final class VerifiedToken {
+        private final Authentication authentication;
+        private final long expiresAt;
+
+        private VerifiedToken(Authentication authentication, long expiresAt) {
+            this.authentication = authentication;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
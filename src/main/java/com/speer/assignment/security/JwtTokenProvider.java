@@ -1,16 +1,23 @@
 package com.speer.assignment.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.Collections;
 import java.util.Date;
 
 @Component
 public class JwtTokenProvider {
+    private static final String USERNAME_CLAIM = "username";
 
     @Value("${app.jwtSecret}")
     private String jwtSecret;
@@ -18,31 +25,57 @@ public class JwtTokenProvider {
     @Value("${app.jwtExpirationInMs}")
     private int jwtExpirationInMs;
 
+    private Key signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    public void init() {
+        // HS512 needs a key of at least 512 bits; the key and parser are immutable and thread-safe.
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+    }
+
     public String generateToken(Authentication authentication) {
-        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        return generateToken((UserPrincipal) authentication.getPrincipal());
+    }
+
+    public String generateToken(UserPrincipal userPrincipal) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationInMs);
 
         return Jwts.builder()
-                .setSubject(Long.toString(Long.parseLong(userPrincipal.getId())))
-                .setIssuedAt(new Date())
+                .setSubject(userPrincipal.getId())
+                .claim(USERNAME_CLAIM, userPrincipal.getUsername())
+                .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(SignatureAlgorithm.HS512, jwtSecret)
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
 
-    public Long getUserIdFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .setSigningKey(jwtSecret)
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Verifies the signature and expiry once and returns the claims.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, forged or expired
+     */
+    public Claims parseToken(String token) {
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    /**
+     * Builds the principal carried by already verified claims, without touching the user store.
+     */
+    public UserPrincipal getPrincipal(Claims claims) {
+        return new UserPrincipal(claims.getSubject(), claims.get(USERNAME_CLAIM, String.class), null,
+                Collections.emptyList());
+    }
 
-        return Long.parseLong(claims.getSubject());
+    public String getUserIdFromToken(String token) {
+        return parseToken(token).getSubject();
     }
 
     public boolean validateToken(String token) {
         try {
-            Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token);
+            parseToken(token);
             return true;
         } catch (Exception ex) {
             // Invalid token
@@ -0,0 +1,53 @@
+package com.speer.assignment.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Counts the hashes and verifications done by the wrapped encoder as
+ * {@code auth.password.operations}, tagged by operation and, for verifications, by result.
+ * Their duration is already recorded by {@link PasswordHasher}.
+ */
+public class MeteredPasswordEncoder implements PasswordEncoder {
+    private static final String METRIC = "auth.password.operations";
+
+    private final PasswordEncoder delegate;
+    private final Counter encodes;
+    private final Counter matches;
+    private final Counter mismatches;
+
+    public MeteredPasswordEncoder(PasswordEncoder delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.encodes = counter(meterRegistry, "encode", "none");
+        this.matches = counter(meterRegistry, "matches", "match");
+        this.mismatches = counter(meterRegistry, "matches", "mismatch");
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        String encoded = delegate.encode(rawPassword);
+        encodes.increment();
+        return encoded;
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        boolean result = delegate.matches(rawPassword, encodedPassword);
+        (result ? matches : mismatches).increment();
+        return result;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String operation, String result) {
+        return Counter.builder(METRIC)
+                .description("Password hashing operations")
+                .tag("operation", operation)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
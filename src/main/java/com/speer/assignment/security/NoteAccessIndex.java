@@ -0,0 +1,194 @@
+package com.speer.assignment.security;
+
+import com.speer.assignment.entity.Note;
+import com.speer.assignment.repository.NoteRepository;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * In-memory owner and share list of every note, so access checks need no Mongo round trip and a
+ * request for someone else's note is rejected before any I/O. User ids are interned to int
+ * ordinals and each note keeps its owner and a sorted array of reader ordinals. Ids are never
+ * reused, so a renamed user keeps their notes and a new signup never inherits a deleted user's.
+ * <p>
+ * The index is built from Mongo at startup and kept current by the create, import, share,
+ * unshare and delete paths of this instance. A note missing from the index, such as one created
+ * through another instance, is loaded from Mongo on first access and kept. An entry older than
+ * {@code app.access.ttlMillis} is read again on its next check, so shares, unshares and deletes
+ * made through another instance are seen within that time. Ids that cannot be an ObjectId are
+ * rejected without a lookup.
+ * Ordinals are never reclaimed, so a deleted user's ordinal stays behind; one int per user.
+ */
+@Component
+public class NoteAccessIndex {
+    private static final int NONE = -1;
+    private static final int[] NO_READERS = new int[0];
+
+    private final NoteRepository noteRepository;
+    private final Map<String, Integer> ordinals = new ConcurrentHashMap<>();
+    private final AtomicInteger nextOrdinal = new AtomicInteger();
+    private final Map<String, Access> notes = new ConcurrentHashMap<>();
+
+    @Value("${app.access.ttlMillis:60000}")
+    private long ttlMillis;
+
+    public NoteAccessIndex(NoteRepository noteRepository) {
+        this.noteRepository = noteRepository;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        try (Stream<Note> accessLists = noteRepository.streamAccessBy()) {
+            accessLists.forEach(this::put);
+        }
+    }
+
+    public void put(Note note) {
+        notes.put(note.getId(), toAccess(note, System.nanoTime()));
+    }
+
+    public void remove(String noteId) {
+        notes.remove(noteId);
+    }
+
+    /** Mirrors a successful share; ignored unless {@code owner} owns the note, like the Mongo update. */
+    public void shared(String noteId, String owner, Collection<String> userIds) {
+        int ownerOrdinal = lookup(owner);
+        int[] added = userIds.stream().mapToInt(this::intern).toArray();
+        notes.computeIfPresent(noteId, (id, current) -> current.isOwnedBy(ownerOrdinal) ? current.with(added) : current);
+    }
+
+    public void unshared(String noteId, String owner, String userId) {
+        int ownerOrdinal = lookup(owner);
+        int removed = lookup(userId);
+        notes.computeIfPresent(noteId, (id, current) -> current.isOwnedBy(ownerOrdinal) ? current.without(removed) : current);
+    }
+
+    public boolean isOwner(String noteId, String userId) {
+        Access access = access(noteId);
+        int ordinal = lookup(userId);
+        return access != null && access.isOwnedBy(ordinal);
+    }
+
+    public boolean canRead(String noteId, String userId) {
+        Access access = access(noteId);
+        int ordinal = lookup(userId);
+        return access != null && access.canRead(ordinal);
+    }
+
+    /** Whether a check on {@code noteId} is answered from memory, without a Mongo lookup. */
+    public boolean isLoaded(String noteId) {
+        if (!ObjectId.isValid(noteId)) {
+            return true;
+        }
+        Access access = notes.get(noteId);
+        return access != null && !isStale(access, System.nanoTime());
+    }
+
+    public int size() {
+        return notes.size();
+    }
+
+    private Access access(String noteId) {
+        Access access = notes.get(noteId);
+        if (!ObjectId.isValid(noteId)) {
+            return access;
+        }
+        long now = System.nanoTime();
+        if (access != null && !isStale(access, now)) {
+            return access;
+        }
+        // The lookup runs outside the map so a slow read never blocks other notes' checks.
+        Optional<Note> note = noteRepository.findAccessById(noteId);
+        if (note.isEmpty()) {
+            if (access != null) {
+                notes.remove(noteId, access);
+            }
+            return null;
+        }
+        Access loaded = toAccess(note.get(), now);
+        // A change made by this instance during the read is kept; it is at least as new as the read.
+        if (access == null) {
+            Access existing = notes.putIfAbsent(noteId, loaded);
+            return existing != null ? existing : loaded;
+        }
+        return notes.replace(noteId, access, loaded) ? loaded : notes.get(noteId);
+    }
+
+    private boolean isStale(Access access, long now) {
+        return now - access.loadedAt >= TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+
+    private Access toAccess(Note note, long loadedAt) {
+        int[] readers = NO_READERS;
+        if (note.getSharedWith() != null) {
+            readers = note.getSharedWith().stream().mapToInt(this::intern).sorted().distinct().toArray();
+        }
+        return new Access(intern(note.getOwner()), readers, loadedAt);
+    }
+
+    private int intern(String userId) {
+        if (userId == null) {
+            return NONE;
+        }
+        return ordinals.computeIfAbsent(userId, id -> nextOrdinal.getAndIncrement());
+    }
+
+    private int lookup(String userId) {
+        Integer ordinal = userId == null ? null : ordinals.get(userId);
+        return ordinal == null ? NONE : ordinal;
+    }
+
+    /**
+     * Immutable owner and readers of one note; replaced wholesale on every change. Local changes
+     * keep {@code loadedAt}, the {@link System#nanoTime} of the last read from Mongo or put.
+     */
+    private static final class Access {
+        private final int owner;
+        private final int[] readers;
+        private final long loadedAt;
+
+        Access(int owner, int[] readers, long loadedAt) {
+            this.owner = owner;
+            this.readers = readers;
+            this.loadedAt = loadedAt;
+        }
+
+        boolean isOwnedBy(int ordinal) {
+            // An unknown user or an ownerless note never matches.
+            return ordinal != NONE && owner == ordinal;
+        }
+
+        boolean canRead(int ordinal) {
+            return isOwnedBy(ordinal) || ordinal != NONE && Arrays.binarySearch(readers, ordinal) >= 0;
+        }
+
+        Access with(int[] added) {
+            int[] merged = Arrays.copyOf(readers, readers.length + added.length);
+            System.arraycopy(added, 0, merged, readers.length, added.length);
+            return new Access(owner, Arrays.stream(merged).sorted().distinct().toArray(), loadedAt);
+        }
+
+        Access without(int ordinal) {
+            int index = Arrays.binarySearch(readers, ordinal);
+            if (index < 0) {
+                return this;
+            }
+            int[] remaining = new int[readers.length - 1];
+            System.arraycopy(readers, 0, remaining, 0, index);
+            System.arraycopy(readers, index + 1, remaining, index, remaining.length - index);
+            return new Access(owner, remaining, loadedAt);
+        }
+    }
+}
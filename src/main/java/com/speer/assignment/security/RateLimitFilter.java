@@ -0,0 +1,41 @@
+package com.speer.assignment.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Applies {@link RateLimitPolicy} to each request and answers 429 with {@code Retry-After} once
+ * the matching bucket is empty. Runs after {@link JwtAuthenticationFilter}, so rules that limit
+ * per principal can key on the authenticated user. {@link RateLimitWebFilter} does the same in
+ * the {@code reactive} profile.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+    private final RateLimitPolicy policy;
+
+    public RateLimitFilter(Collection<RateLimitPolicy.Rule> rules, MeterRegistry meterRegistry) {
+        this.policy = new RateLimitPolicy(rules, meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long retryAfterSeconds = policy.acquire(request.getRequestURI(), request.getMethod(),
+                SecurityContextHolder.getContext().getAuthentication(), request.getRemoteAddr());
+        if (retryAfterSeconds > 0) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,103 @@
+package com.speer.assignment.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.security.core.Authentication;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The rate-limit decision shared by {@link RateLimitFilter} and {@link RateLimitWebFilter}: the
+ * first {@link Rule} matching a request takes a permit, and an empty bucket is counted as
+ * {@code http.server.requests.throttled}, tagged with the rule name. Rules that limit per
+ * principal key on the user id, so a rename does not reset a user's buckets; anonymous requests
+ * are keyed by remote address.
+ */
+public class RateLimitPolicy {
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final List<Rule> rules;
+    private final List<Counter> rejections;
+
+    public RateLimitPolicy(Collection<Rule> rules, MeterRegistry meterRegistry) {
+        this.rules = new ArrayList<>(rules);
+        this.rejections = new ArrayList<>(rules.size());
+        for (Rule rule : this.rules) {
+            rejections.add(Counter.builder("http.server.requests.throttled")
+                    .tag("rule", rule.name)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Takes a permit from the first matching rule.
+     *
+     * @return 0 when the request may proceed, otherwise the whole seconds to send as {@code Retry-After}
+     */
+    public long acquire(String path, String method, Authentication authentication, String remoteAddress) {
+        for (int i = 0; i < rules.size(); i++) {
+            Rule rule = rules.get(i);
+            if (!rule.matches(path, method)) {
+                continue;
+            }
+            long waitNanos = rule.tryAcquire(authentication, remoteAddress);
+            if (waitNanos <= 0) {
+                return 0;
+            }
+            rejections.get(i).increment();
+            return Math.max(1, (waitNanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND);
+        }
+        return 0;
+    }
+
+    /**
+     * One limited route: a path prefix, optionally restricted to some HTTP methods, with separate
+     * buckets per principal and per remote address.
+     */
+    public static final class Rule {
+        private final String name;
+        private final String pathPrefix;
+        private final Set<String> methods;
+        private final boolean perPrincipal;
+        private final RateLimiter principals;
+        private final RateLimiter addresses;
+
+        /**
+         * @param methods the methods the rule applies to, or null for all
+         * @param perPrincipal whether authenticated requests are keyed by user rather than address
+         */
+        public Rule(String name, String pathPrefix, Set<String> methods, boolean perPrincipal,
+                    double permitsPerSecond, int burst, int maxKeys) {
+            this.name = name;
+            this.pathPrefix = pathPrefix;
+            this.methods = methods;
+            this.perPrincipal = perPrincipal;
+            this.principals = perPrincipal ? new RateLimiter(permitsPerSecond, burst, maxKeys) : null;
+            this.addresses = new RateLimiter(permitsPerSecond, burst, maxKeys);
+        }
+
+        /** Drops idle keys from the rule's buckets; see {@link RateLimiter#sweep()}. */
+        void sweep() {
+            if (principals != null) {
+                principals.sweep();
+            }
+            addresses.sweep();
+        }
+
+        boolean matches(String path, String method) {
+            return path.startsWith(pathPrefix) && (methods == null || methods.contains(method));
+        }
+
+        long tryAcquire(Authentication authentication, String remoteAddress) {
+            if (perPrincipal && authentication != null && authentication.isAuthenticated()) {
+                String userId = UserPrincipal.idOf(authentication);
+                return principals.tryAcquire(userId != null ? userId : authentication.getName());
+            }
+            return addresses.tryAcquire(remoteAddress == null ? "unknown" : remoteAddress);
+        }
+    }
+}
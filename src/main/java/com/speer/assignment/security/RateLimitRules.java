@@ -0,0 +1,113 @@
+package com.speer.assignment.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The rate-limited routes and their limits, read from {@code app.rateLimit.*}. Rules are checked
+ * in order and the first match applies: the credential endpoints per remote address, since they
+ * run BCrypt before anyone is authenticated, then user updates, which also run BCrypt, and note
+ * writes and note reads per user. Both the servlet and the reactive security chains apply them.
+ * <p>
+ * Idle keys of every rule handed out are swept on one background thread every
+ * {@code app.rateLimit.sweepIntervalMillis}, so requests never pay for the sweep.
+ */
+@Component
+public class RateLimitRules {
+    private static final Set<String> WRITE_METHODS =
+            Collections.unmodifiableSet(new HashSet<>(Arrays.asList("POST", "PUT", "PATCH", "DELETE")));
+
+    @Value("${app.rateLimit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.rateLimit.maxKeys:100000}")
+    private int maxKeys;
+
+    @Value("${app.rateLimit.sweepIntervalMillis:10000}")
+    private long sweepIntervalMillis;
+
+    @Value("${app.rateLimit.auth.permitsPerSecond:2}")
+    private double authPermitsPerSecond;
+
+    @Value("${app.rateLimit.auth.burst:10}")
+    private int authBurst;
+
+    @Value("${app.rateLimit.register.permitsPerSecond:0.2}")
+    private double registerPermitsPerSecond;
+
+    @Value("${app.rateLimit.register.burst:5}")
+    private int registerBurst;
+
+    @Value("${app.rateLimit.userUpdates.permitsPerSecond:0.2}")
+    private double userUpdatesPermitsPerSecond;
+
+    @Value("${app.rateLimit.userUpdates.burst:5}")
+    private int userUpdatesBurst;
+
+    @Value("${app.rateLimit.noteWrites.permitsPerSecond:20}")
+    private double noteWritesPermitsPerSecond;
+
+    @Value("${app.rateLimit.noteWrites.burst:50}")
+    private int noteWritesBurst;
+
+    @Value("${app.rateLimit.noteReads.permitsPerSecond:100}")
+    private double noteReadsPermitsPerSecond;
+
+    @Value("${app.rateLimit.noteReads.burst:200}")
+    private int noteReadsBurst;
+
+    private final List<RateLimitPolicy.Rule> issued = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService sweeper;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public List<RateLimitPolicy.Rule> rules() {
+        List<RateLimitPolicy.Rule> rules = Arrays.asList(
+                new RateLimitPolicy.Rule("auth", "/api/auth/", null, false,
+                        authPermitsPerSecond, authBurst, maxKeys),
+                new RateLimitPolicy.Rule("register", "/api/users/register", null, false,
+                        registerPermitsPerSecond, registerBurst, maxKeys),
+                new RateLimitPolicy.Rule("userUpdates", "/api/users/", Collections.singleton("PUT"), true,
+                        userUpdatesPermitsPerSecond, userUpdatesBurst, maxKeys),
+                new RateLimitPolicy.Rule("noteWrites", "/api/notes", WRITE_METHODS, true,
+                        noteWritesPermitsPerSecond, noteWritesBurst, maxKeys),
+                new RateLimitPolicy.Rule("noteReads", "/api/notes", null, true,
+                        noteReadsPermitsPerSecond, noteReadsBurst, maxKeys));
+        issued.addAll(rules);
+        startSweeper();
+        return rules;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    private synchronized void startSweeper() {
+        if (sweeper != null) {
+            return;
+        }
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-limit-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(() -> issued.forEach(RateLimitPolicy.Rule::sweep),
+                sweepIntervalMillis, sweepIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,53 @@
+package com.speer.assignment.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.Collection;
+
+/**
+ * Reactive counterpart of {@link RateLimitFilter}. Runs after {@link JwtAuthenticationWebFilter}
+ * and reads the authentication from the reactive security context. Taking a permit never blocks,
+ * so the check runs on the event loop.
+ */
+public class RateLimitWebFilter implements WebFilter {
+    private final RateLimitPolicy policy;
+
+    public RateLimitWebFilter(Collection<RateLimitPolicy.Rule> rules, MeterRegistry meterRegistry) {
+        this.policy = new RateLimitPolicy(rules, meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        return ReactiveSecurityContextHolder.getContext()
+                .mapNotNull(SecurityContext::getAuthentication)
+                .map(authentication -> acquire(exchange.getRequest(), authentication))
+                .switchIfEmpty(Mono.fromSupplier(() -> acquire(exchange.getRequest(), null)))
+                .flatMap(retryAfterSeconds -> {
+                    if (retryAfterSeconds == 0) {
+                        return chain.filter(exchange);
+                    }
+                    ServerHttpResponse response = exchange.getResponse();
+                    response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+                    response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+                    return response.setComplete();
+                });
+    }
+
+    private long acquire(ServerHttpRequest request, Authentication authentication) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        return policy.acquire(request.getPath().value(), request.getMethodValue(), authentication,
+                remoteAddress == null || remoteAddress.getAddress() == null ? null : remoteAddress.getAddress().getHostAddress());
+    }
+}
@@ -0,0 +1,104 @@
+package com.speer.assignment.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets keyed by string, kept as GCRA state: one theoretical arrival time per key in an
+ * {@link AtomicLong}. Taking a permit is a map read and one compare-and-set, with no locks and
+ * no allocation once the key exists. The map is a {@link ConcurrentHashMap}, whose reads are
+ * lock-free and whose writes lock a single bin.
+ * <p>
+ * A key whose arrival time has passed holds a full bucket, which is exactly the state a new key
+ * starts in, so {@link #sweep()} drops such keys without changing any decision. The sweep walks
+ * the whole map and is run by a background thread, never by a request. The map holds at most
+ * {@code maxKeys} keys: a new key arriving while it is full is refused until a sweep makes room.
+ */
+public class RateLimiter {
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicInteger keys = new AtomicInteger();
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final int maxKeys;
+    private final LongSupplier nanoClock;
+
+    public RateLimiter(double permitsPerSecond, int burst, int maxKeys) {
+        this(permitsPerSecond, burst, maxKeys, System::nanoTime);
+    }
+
+    RateLimiter(double permitsPerSecond, int burst, int maxKeys, LongSupplier nanoClock) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive and burst at least 1");
+        }
+        this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * burst;
+        this.maxKeys = maxKeys;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Takes one permit for {@code key}.
+     *
+     * @return zero when the permit was granted, otherwise the nanoseconds until one will be; for a
+     *         new key refused because the limiter is full, one emission interval
+     */
+    public long tryAcquire(String key) {
+        long now = nanoClock.getAsLong();
+        AtomicLong arrival = buckets.get(key);
+        if (arrival == null) {
+            arrival = add(key, now);
+            if (arrival == null) {
+                return emissionIntervalNanos;
+            }
+        }
+
+        while (true) {
+            long tat = arrival.get();
+            long newTat = Math.max(tat, now) + emissionIntervalNanos;
+            long allowedAt = newTat - burstToleranceNanos;
+            if (allowedAt - now > 0) {
+                return allowedAt - now;
+            }
+            if (arrival.compareAndSet(tat, newTat)) {
+                return 0;
+            }
+        }
+    }
+
+    /** Drops the keys whose bucket is full again. */
+    public void sweep() {
+        long now = nanoClock.getAsLong();
+        // A request racing with the removal updates the detached counter once; the key then
+        // restarts from a full bucket, which is the state it was removed in.
+        for (Map.Entry<String, AtomicLong> bucket : buckets.entrySet()) {
+            if (bucket.getValue().get() - now < 0 && buckets.remove(bucket.getKey(), bucket.getValue())) {
+                keys.decrementAndGet();
+            }
+        }
+    }
+
+    int size() {
+        return buckets.size();
+    }
+
+    /** Adds a bucket for {@code key} if there is room, returning null when the limiter is full. */
+    private AtomicLong add(String key, long now) {
+        // The slot is reserved before the insert, so concurrent new keys cannot overshoot the cap.
+        if (keys.incrementAndGet() > maxKeys) {
+            keys.decrementAndGet();
+            // Another request may have added this key meanwhile; it is then served as usual.
+            return buckets.get(key);
+        }
+        AtomicLong created = new AtomicLong(now);
+        AtomicLong existing = buckets.putIfAbsent(key, created);
+        if (existing != null) {
+            keys.decrementAndGet();
+            return existing;
+        }
+        return created;
+    }
+}
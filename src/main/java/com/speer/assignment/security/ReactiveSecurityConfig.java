@@ -0,0 +1,87 @@
+package com.speer.assignment.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.reactive.EndpointRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+
+/**
+ * Security for the {@code reactive} profile. It applies the same rules as {@link SecurityConfig}:
+ * stateless, bearer-token authentication, with only the auth and registration endpoints and the
+ * internal management port open, and the same {@link RateLimitRules}.
+ */
+@Configuration
+@EnableWebFluxSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSecurityConfig {
+
+    private final CustomUserDetailsService userDetailsService;
+    private final JwtTokenProvider tokenProvider;
+    private final MeterRegistry meterRegistry;
+    private final RateLimitRules rateLimitRules;
+
+    @Value("${app.jwtCacheSize:10000}")
+    private long jwtCacheSize;
+
+    public ReactiveSecurityConfig(CustomUserDetailsService userDetailsService, JwtTokenProvider tokenProvider,
+                                  MeterRegistry meterRegistry, RateLimitRules rateLimitRules) {
+        this.userDetailsService = userDetailsService;
+        this.tokenProvider = tokenProvider;
+        this.meterRegistry = meterRegistry;
+        this.rateLimitRules = rateLimitRules;
+    }
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+        http
+                .csrf().disable()
+                .httpBasic().disable()
+                .formLogin().disable()
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .exceptionHandling().authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.UNAUTHORIZED))
+                .and()
+                .authorizeExchange()
+                .pathMatchers("/api/auth/**", "/api/users/register").permitAll()
+                // Matches only on the management port, which is bound to an internal address.
+                .matchers(EndpointRequest.toAnyEndpoint()).permitAll()
+                .anyExchange().authenticated()
+                .and()
+                .addFilterAt(new JwtAuthenticationWebFilter(tokenProvider, jwtCacheSize, meterRegistry),
+                        SecurityWebFiltersOrder.AUTHENTICATION);
+        if (rateLimitRules.isEnabled()) {
+            http.addFilterAfter(new RateLimitWebFilter(rateLimitRules.rules(), meterRegistry),
+                    SecurityWebFiltersOrder.AUTHENTICATION);
+        }
+        return http.build();
+    }
+
+    /**
+     * Used by the login endpoint, which checks passwords on the hashing pool in both modes.
+     */
+    @Bean
+    public AuthenticationManager authenticationManager() {
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(userDetailsService);
+        provider.setPasswordEncoder(passwordEncoder());
+        return new ProviderManager(provider);
+    }
+
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        return new MeteredPasswordEncoder(new BCryptPasswordEncoder(), meterRegistry);
+    }
+}
@@ -1,24 +1,75 @@
 package com.speer.assignment.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+/**
+ * Stateless bearer-token security for the servlet API. Only the auth and registration endpoints
+ * are open. Actuator endpoints are open too, but only on {@code management.server.port}, which
+ * listens on an internal address; on the API port they do not exist.
+ */
 @Configuration
 @EnableWebSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class SecurityConfig extends WebSecurityConfigurerAdapter {
 
+    private final CustomUserDetailsService userDetailsService;
+    private final JwtTokenProvider tokenProvider;
+    private final MeterRegistry meterRegistry;
+    private final RateLimitRules rateLimitRules;
+
+    @Value("${app.jwtCacheSize:10000}")
+    private long jwtCacheSize;
+
+    public SecurityConfig(CustomUserDetailsService userDetailsService, JwtTokenProvider tokenProvider,
+                          MeterRegistry meterRegistry, RateLimitRules rateLimitRules) {
+        this.userDetailsService = userDetailsService;
+        this.tokenProvider = tokenProvider;
+        this.meterRegistry = meterRegistry;
+        this.rateLimitRules = rateLimitRules;
+    }
+
     @Override
     protected void configure(AuthenticationManagerBuilder auth) throws Exception {
         auth
-                .inMemoryAuthentication()
-                .withUser("admin")
-                .password(passwordEncoder().encode("password"))
-                .roles("ADMIN");
+                .userDetailsService(userDetailsService)
+                .passwordEncoder(passwordEncoder());
+    }
+
+    @Override
+    protected void configure(HttpSecurity http) throws Exception {
+        http
+                .csrf().disable()
+                .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+                .and()
+                .exceptionHandling().authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED))
+                .and()
+                .authorizeRequests()
+                .antMatchers("/api/auth/**", "/api/users/register").permitAll()
+                // Matches only on the management port, which is bound to an internal address.
+                .requestMatchers(EndpointRequest.toAnyEndpoint()).permitAll()
+                .anyRequest().authenticated()
+                .and()
+                .addFilterBefore(new JwtAuthenticationFilter(tokenProvider, jwtCacheSize, meterRegistry),
+                        UsernamePasswordAuthenticationFilter.class);
+        if (rateLimitRules.isEnabled()) {
+            http.addFilterAfter(new RateLimitFilter(rateLimitRules.rules(), meterRegistry), JwtAuthenticationFilter.class);
+        }
     }
 
     @Override
@@ -28,8 +79,8 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     }
 
     @Bean
-    public BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder() {
+        return new MeteredPasswordEncoder(new BCryptPasswordEncoder(), meterRegistry);
     }
 
 }
@@ -1,8 +1,10 @@
 package com.speer.assignment.security;
 
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.security.Principal;
 import java.util.Collection;
 
 public class UserPrincipal implements UserDetails {
@@ -22,6 +24,18 @@ public class UserPrincipal implements UserDetails {
         return id;
     }
 
+    /**
+     * Returns the user id carried by an authenticated request principal, or null when the request
+     * was not authenticated with a {@link UserPrincipal}. Notes are keyed on this id rather than
+     * the username, which can change.
+     */
+    public static String idOf(Principal principal) {
+        if (principal instanceof Authentication && ((Authentication) principal).getPrincipal() instanceof UserPrincipal) {
+            return ((UserPrincipal) ((Authentication) principal).getPrincipal()).getId();
+        }
+        return null;
+    }
+
     @Override
     public String getUsername() {
         return username;
@@ -1,38 +1,73 @@
 package com.speer.assignment.service;
 
 import com.speer.assignment.dto.LoginRequest;
+import com.speer.assignment.dto.LoginResponse;
+import com.speer.assignment.dto.RefreshTokenRequest;
 import com.speer.assignment.dto.SignupRequest;
 import com.speer.assignment.dto.UserDto;
+import com.speer.assignment.entity.RefreshToken;
+import com.speer.assignment.entity.User;
 import com.speer.assignment.security.JwtTokenProvider;
+import com.speer.assignment.security.PasswordHasher;
+import com.speer.assignment.security.UserPrincipal;
 import lombok.AllArgsConstructor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @AllArgsConstructor
 public class AuthService {
 
     private final UserService userService;
+    private final PasswordHasher passwordHasher;
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider tokenProvider;
+    private final RefreshTokenService refreshTokenService;
+    private final TaskExecutor taskExecutor;
 
-    public void signup(SignupRequest signupRequest) {
+    public CompletableFuture<User> signup(SignupRequest signupRequest) {
         UserDto userDto = new UserDto();
         userDto.setUsername(signupRequest.getUsername());
         userDto.setPassword(signupRequest.getPassword());
 
-        userService.registerUser(userDto);
+        return userService.registerUser(userDto);
     }
 
-    public String login(LoginRequest loginRequest) {
-        Authentication authentication = authenticationManager.authenticate(
+    /**
+     * Verifies the password on the hashing pool and issues the tokens on the application task
+     * executor, so the refresh token write never holds a hashing thread. The returned future fails
+     * with an {@link org.springframework.security.core.AuthenticationException} on bad credentials.
+     */
+    public CompletableFuture<LoginResponse> login(LoginRequest loginRequest) {
+        return passwordHasher.submit(() -> authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword())
-        );
+        )).thenApplyAsync(authentication -> issueTokens((UserPrincipal) authentication.getPrincipal()), taskExecutor);
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and a new refresh token. The presented
+     * token is consumed, so replaying it fails. No password hashing is involved.
+     */
+    public LoginResponse refresh(RefreshTokenRequest refreshTokenRequest) {
+        RefreshToken refreshToken = refreshTokenService.consume(refreshTokenRequest.getRefreshToken())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid refresh token"));
+
+        return issueTokens(new UserPrincipal(refreshToken.getUserId(), refreshToken.getUsername(), null,
+                Collections.emptyList()));
+    }
+
+    public void logout(RefreshTokenRequest refreshTokenRequest) {
+        refreshTokenService.revoke(refreshTokenRequest.getRefreshToken());
+    }
 
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        return tokenProvider.generateToken(authentication);
+    private LoginResponse issueTokens(UserPrincipal principal) {
+        return new LoginResponse(tokenProvider.generateToken(principal), refreshTokenService.issue(principal));
     }
 }
@@ -0,0 +1,86 @@
+package com.speer.assignment.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.speer.assignment.dto.NoteDto;
+import com.speer.assignment.dto.NoteDtos;
+import com.speer.assignment.entity.Note;
+import com.speer.assignment.repository.NoteBodyStore;
+import com.speer.assignment.repository.NoteRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.gridfs.GridFsResource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes all of a user's notes as NDJSON while walking a Mongo cursor. Only the current cursor
+ * batch is held in memory. Output is flushed after the first note and after every batch, so the
+ * client starts receiving data before the export finishes. Bodies kept in GridFS are copied
+ * through in chunks rather than loaded whole.
+ */
+@Service
+public class NoteExportService {
+    private final NoteRepository noteRepository;
+    private final NoteBodyStore noteBodyStore;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.export.batchSize:1000}")
+    private int batchSize;
+
+    public NoteExportService(NoteRepository noteRepository, NoteBodyStore noteBodyStore, ObjectMapper objectMapper) {
+        this.noteRepository = noteRepository;
+        this.noteBodyStore = noteBodyStore;
+        this.objectMapper = objectMapper;
+    }
+
+    public long exportNotes(String owner, OutputStream output) throws IOException {
+        long written = 0;
+        try (Stream<Note> notes = noteRepository.streamOwnedBy(owner, batchSize);
+             JsonGenerator generator = objectMapper.createGenerator(output)) {
+            generator.setRootValueSeparator(new SerializedString("\n"));
+
+            Iterator<Note> iterator = notes.iterator();
+            while (iterator.hasNext()) {
+                Note note = iterator.next();
+                GridFsResource body = note.getContentRef() == null ? null : noteBodyStore.open(note.getContentRef());
+                if (body == null) {
+                    generator.writeObject(NoteDtos.toDto(note));
+                } else {
+                    try (Reader reader = new InputStreamReader(body.getInputStream(), StandardCharsets.UTF_8)) {
+                        writeNote(generator, note, reader);
+                    }
+                }
+                written++;
+                if (written == 1 || written % batchSize == 0) {
+                    generator.flush();
+                }
+            }
+            if (written > 0) {
+                generator.writeRaw('\n');
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Writes {@code note} in the {@link NoteDto} shape with the content read from {@code body}, so
+     * a large body passes through the generator without being held as one string.
+     */
+    public static void writeNote(JsonGenerator generator, Note note, Reader body) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("id", note.getId());
+        generator.writeStringField("title", note.getTitle());
+        generator.writeFieldName("content");
+        generator.writeString(body, -1);
+        generator.writeObjectField("version", note.getVersion());
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,195 @@
+package com.speer.assignment.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import com.speer.assignment.dto.ImportResult;
+import com.speer.assignment.dto.NoteDto;
+import com.speer.assignment.entity.Note;
+import com.speer.assignment.repository.NoteRepository;
+import com.speer.assignment.search.NoteSearchEngine;
+import com.speer.assignment.security.NoteAccessIndex;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Imports notes from an NDJSON stream, one {@link NoteDto} per line. Lines are parsed as they
+ * arrive and written in batches of at most {@code app.import.batchSize} notes and, past the line
+ * that crosses it, {@code app.import.batchBytes} of input, so memory depends on the batch size
+ * rather than the upload size. Invalid lines and rejected inserts are reported by line
+ * number, and the rest of the upload still goes in. A line longer than
+ * {@code app.import.maxLineBytes} is skipped without being buffered past the limit and reported
+ * the same way.
+ */
+@Service
+public class NoteImportService {
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final NoteRepository noteRepository;
+    private final NoteAccessIndex noteAccessIndex;
+    private final NoteSearchEngine noteSearchEngine;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.import.batchSize:500}")
+    private int batchSize;
+
+    @Value("${app.import.batchBytes:16777216}")
+    private long batchBytes;
+
+    @Value("${app.import.maxLineBytes:16777216}")
+    private int maxLineBytes;
+
+    public NoteImportService(NoteRepository noteRepository, NoteAccessIndex noteAccessIndex,
+                             NoteSearchEngine noteSearchEngine, ObjectMapper objectMapper) {
+        this.noteRepository = noteRepository;
+        this.noteAccessIndex = noteAccessIndex;
+        this.noteSearchEngine = noteSearchEngine;
+        this.objectMapper = objectMapper;
+    }
+
+    public ImportResult importNotes(InputStream input, String owner) throws IOException {
+        ImportResult result = new ImportResult();
+        List<Note> batch = new ArrayList<>(batchSize);
+        List<Integer> batchLines = new ArrayList<>(batchSize);
+        long batchLineBytes = 0;
+
+        LineReader reader = new LineReader(new BufferedInputStream(input), maxLineBytes);
+        int lineNumber = 0;
+        while (reader.next()) {
+            lineNumber++;
+            if (reader.overflowed()) {
+                recordError(result, lineNumber, "Line exceeds " + maxLineBytes + " bytes");
+                continue;
+            }
+            String line = reader.line();
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+
+            NoteDto noteDto;
+            try {
+                noteDto = objectMapper.readValue(line, NoteDto.class);
+            } catch (JsonProcessingException e) {
+                recordError(result, lineNumber, "Invalid JSON");
+                continue;
+            }
+            if (noteDto == null || (noteDto.getTitle() == null && noteDto.getContent() == null)) {
+                recordError(result, lineNumber, "title or content is required");
+                continue;
+            }
+
+            batch.add(toNote(noteDto, owner));
+            batchLines.add(lineNumber);
+            batchLineBytes += reader.size();
+            if (batch.size() >= batchSize || batchLineBytes >= batchBytes) {
+                flush(batch, batchLines, result);
+                batchLineBytes = 0;
+            }
+        }
+        flush(batch, batchLines, result);
+
+        return result;
+    }
+
+    private void flush(List<Note> batch, List<Integer> batchLines, ImportResult result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<BulkWriteError> errors = noteRepository.insertUnordered(batch);
+        Set<Integer> failed = new HashSet<>();
+        for (BulkWriteError error : errors) {
+            failed.add(error.getIndex());
+            recordError(result, batchLines.get(error.getIndex()), error.getMessage());
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            if (!failed.contains(i)) {
+                noteAccessIndex.put(batch.get(i));
+                noteSearchEngine.index(batch.get(i));
+            }
+        }
+        result.setImported(result.getImported() + batch.size() - failed.size());
+
+        batch.clear();
+        batchLines.clear();
+    }
+
+    private static Note toNote(NoteDto noteDto, String owner) {
+        // Ids are assigned here rather than by the driver, so the access and search indexes can pick up the
+        // inserted notes without reading them back.
+        Note note = new Note();
+        note.setId(new ObjectId().toHexString());
+        note.setOwner(owner);
+        note.setTitle(noteDto.getTitle());
+        note.setContent(noteDto.getContent());
+        note.setVersion(0L);
+        return note;
+    }
+
+    private static void recordError(ImportResult result, int line, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add(new ImportResult.LineError(line, message));
+        }
+    }
+
+    /**
+     * Splits the input on {@code \n}, dropping a trailing {@code \r}. At most {@code maxBytes} of a
+     * line are kept and the rest of it is discarded, so one oversized record cannot exhaust the heap.
+     */
+    private static final class LineReader {
+        private final InputStream input;
+        private final int maxBytes;
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        private boolean overflowed;
+
+        LineReader(InputStream input, int maxBytes) {
+            this.input = input;
+            this.maxBytes = maxBytes;
+        }
+
+        /** Reads the next line, returning false at the end of the input. */
+        boolean next() throws IOException {
+            line.reset();
+            overflowed = false;
+            int b = input.read();
+            if (b == -1) {
+                return false;
+            }
+            while (b != -1 && b != '\n') {
+                if (line.size() < maxBytes) {
+                    line.write(b);
+                } else {
+                    overflowed = true;
+                }
+                b = input.read();
+            }
+            return true;
+        }
+
+        boolean overflowed() {
+            return overflowed;
+        }
+
+        /** Bytes kept of the current line. */
+        int size() {
+            return line.size();
+        }
+
+        String line() {
+            String text = line.toString(StandardCharsets.UTF_8);
+            return text.endsWith("\r") ? text.substring(0, text.length() - 1) : text;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.speer.assignment.service;
+
+import com.speer.assignment.entity.RefreshToken;
+import com.speer.assignment.repository.RefreshTokenRepository;
+import com.speer.assignment.security.UserPrincipal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Optional;
+
+/**
+ * Issues opaque refresh tokens. Only a SHA-256 digest of each token is stored. Refresh tokens
+ * are random with 256 bits of entropy, so a fast hash is enough and redeeming one costs a single
+ * indexed find-and-delete. Expired tokens are removed by the TTL index on {@code expiresAt}.
+ */
+@Service
+public class RefreshTokenService {
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Value("${app.refreshTokenExpirationInMs}")
+    private long refreshTokenExpirationInMs;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository) {
+        this.refreshTokenRepository = refreshTokenRepository;
+    }
+
+    public String issue(UserPrincipal principal) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(hash(token));
+        refreshToken.setUserId(principal.getId());
+        refreshToken.setUsername(principal.getUsername());
+        refreshToken.setExpiresAt(new Date(System.currentTimeMillis() + refreshTokenExpirationInMs));
+        refreshTokenRepository.insert(refreshToken);
+
+        return token;
+    }
+
+    /**
+     * Redeems a refresh token. The stored record is deleted in the same operation, so a token
+     * that was already rotated, revoked or expired yields an empty result.
+     */
+    public Optional<RefreshToken> consume(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+        return refreshTokenRepository.deleteByTokenHash(hash(token))
+                .filter(refreshToken -> refreshToken.getExpiresAt().after(new Date()));
+    }
+
+    public void revoke(String token) {
+        consume(token);
+    }
+
+    public void revokeAll(String userId) {
+        refreshTokenRepository.deleteByUserId(userId);
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -3,33 +3,54 @@ package com.speer.assignment.service;
 import com.speer.assignment.dto.UserDto;
 import com.speer.assignment.entity.User;
 import com.speer.assignment.repository.UserRepository;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import com.speer.assignment.security.PasswordHasher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 @Service
 public class UserService {
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
-
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    private final PasswordHasher passwordHasher;
+    private final RefreshTokenService refreshTokenService;
+    private final TaskExecutor taskExecutor;
+
+    /**
+     * {@code taskExecutor} runs the Mongo writes that follow a hash, so the hashing pool's threads
+     * only ever run BCrypt.
+     */
+    public UserService(UserRepository userRepository, PasswordHasher passwordHasher,
+                       RefreshTokenService refreshTokenService, TaskExecutor taskExecutor) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
+        this.refreshTokenService = refreshTokenService;
+        this.taskExecutor = taskExecutor;
     }
 
-    public User registerUser(UserDto userDto) {
+    public CompletableFuture<User> registerUser(UserDto userDto) {
         validateUserDto(userDto);
 
-        if (userRepository.findByUsername(userDto.getUsername()).isPresent()) {
-            throw new IllegalArgumentException("Username already exists");
-        }
-
-        User user = new User();
-        user.setUsername(userDto.getUsername());
-        user.setPassword(passwordEncoder.encode(userDto.getPassword()));
-
-        return userRepository.save(user);
+        // The unique index on username decides races between concurrent signups in one write.
+        return passwordHasher.encode(userDto.getPassword()).thenApplyAsync(encodedPassword -> {
+            User user = new User();
+            user.setUsername(userDto.getUsername());
+            user.setPassword(encodedPassword);
+
+            try {
+                return userRepository.insert(user);
+            } catch (DuplicateKeyException e) {
+                throw usernameTaken();
+            }
+        }, taskExecutor);
     }
 
     public User getUserById(String id) {
@@ -37,20 +58,48 @@ public class UserService {
         return optionalUser.orElse(null);
     }
 
-    public User updateUser(String id, UserDto userDto) {
+    /**
+     * Resolves usernames to user ids in one query, keeping the order of {@code usernames}. Notes
+     * store ids, so this is the only place a share target's username is looked up. Fails with 404
+     * when any of the users does not exist.
+     */
+    public List<String> resolveIds(Collection<String> usernames) {
+        Map<String, String> ids = userRepository.findByUsernameIn(usernames).stream()
+                .collect(Collectors.toMap(User::getUsername, User::getId));
+        if (!ids.keySet().containsAll(usernames)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+        }
+        return usernames.stream().map(ids::get).distinct().collect(Collectors.toList());
+    }
+
+    public CompletableFuture<User> updateUser(String id, UserDto userDto) {
         validateUserDto(userDto);
 
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        user.setUsername(userDto.getUsername());
-        user.setPassword(passwordEncoder.encode(userDto.getPassword()));
-
-        return userRepository.save(user);
+        return passwordHasher.encode(userDto.getPassword()).thenApplyAsync(encodedPassword -> {
+            user.setUsername(userDto.getUsername());
+            user.setPassword(encodedPassword);
+
+            User updatedUser;
+            try {
+                updatedUser = userRepository.save(user);
+            } catch (DuplicateKeyException e) {
+                throw usernameTaken();
+            }
+            refreshTokenService.revokeAll(id);
+            return updatedUser;
+        }, taskExecutor);
     }
 
     public void deleteUser(String id) {
         userRepository.deleteById(id);
+        refreshTokenService.revokeAll(id);
+    }
+
+    private static ResponseStatusException usernameTaken() {
+        return new ResponseStatusException(HttpStatus.CONFLICT, "Username already exists");
     }
 
     private void validateUserDto(UserDto userDto) {
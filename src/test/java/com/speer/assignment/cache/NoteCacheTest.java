@@ -0,0 +1,78 @@
+package com.speer.assignment.cache;
+
+import com.speer.assignment.entity.Note;
+import com.speer.assignment.repository.NoteRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class NoteCacheTest {
+    @Mock
+    private NoteRepository noteRepository;
+
+    private NoteCache noteCache;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        noteCache = new NoteCache(noteRepository, new SimpleMeterRegistry(), 1024 * 1024);
+    }
+
+    @Test
+    public void findById_RepeatedReads_LoadOnce() {
+        Note note = new Note();
+        note.setId("1");
+        note.setTitle("Note 1");
+
+        when(noteRepository.findById("1")).thenReturn(Optional.of(note));
+
+        assertSame(note, noteCache.findById("1").get());
+        assertSame(note, noteCache.findById("1").get());
+
+        verify(noteRepository, times(1)).findById("1");
+        assertEquals(1, noteCache.stats().hitCount());
+        assertEquals(1, noteCache.stats().missCount());
+    }
+
+    @Test
+    public void findById_MissingNote_IsNotCached() {
+        when(noteRepository.findById("1")).thenReturn(Optional.empty());
+
+        assertFalse(noteCache.findById("1").isPresent());
+        assertFalse(noteCache.findById("1").isPresent());
+
+        verify(noteRepository, times(2)).findById("1");
+    }
+
+    @Test
+    public void invalidate_ForcesReload() {
+        Note note = new Note();
+        note.setId("1");
+
+        when(noteRepository.findById("1")).thenReturn(Optional.of(note));
+
+        noteCache.findById("1");
+        noteCache.invalidate("1");
+        noteCache.findById("1");
+
+        verify(noteRepository, times(2)).findById("1");
+    }
+
+    @Test
+    public void put_ServesWithoutRepository() {
+        Note note = new Note();
+        note.setId("1");
+
+        noteCache.put(note);
+
+        assertSame(note, noteCache.findById("1").get());
+        verify(noteRepository, never()).findById("1");
+    }
+}
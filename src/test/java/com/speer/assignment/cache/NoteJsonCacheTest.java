@@ -0,0 +1,85 @@
+package com.speer.assignment.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.speer.assignment.entity.Note;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+public class NoteJsonCacheTest {
+    private NoteJsonCache noteJsonCache;
+    private final AtomicInteger conversions = new AtomicInteger();
+    private final Function<Note, Object> toDto = note -> {
+        conversions.incrementAndGet();
+        return note.getContent();
+    };
+
+    @Before
+    public void setup() {
+        noteJsonCache = new NoteJsonCache(new ObjectMapper(), new SimpleMeterRegistry(), 1024 * 1024, 64);
+    }
+
+    @Test
+    public void get_SameVersion_EncodesOnce() {
+        Note note = note(1L, "Content");
+
+        byte[] first = noteJsonCache.get(note, toDto).json();
+        byte[] second = noteJsonCache.get(note, toDto).json();
+
+        assertSame(first, second);
+        assertEquals("\"Content\"", new String(first, StandardCharsets.UTF_8));
+        assertEquals(1, conversions.get());
+    }
+
+    @Test
+    public void get_NewVersion_ReEncodes() {
+        noteJsonCache.get(note(1L, "Old"), toDto);
+
+        byte[] json = noteJsonCache.get(note(2L, "New"), toDto).json();
+
+        assertEquals("\"New\"", new String(json, StandardCharsets.UTF_8));
+        assertEquals(2, conversions.get());
+    }
+
+    @Test
+    public void get_AfterInvalidate_ReEncodes() {
+        Note note = note(1L, "Content");
+        noteJsonCache.get(note, toDto);
+
+        noteJsonCache.invalidate("1");
+        noteJsonCache.get(note, toDto);
+
+        assertEquals(2, conversions.get());
+    }
+
+    @Test
+    public void gzip_LargeBody_RoundTrips() throws Exception {
+        NoteJsonCache.Encoded encoded = noteJsonCache.get(note(1L, "x".repeat(500)), toDto);
+
+        assertTrue(encoded.compressible());
+        assertSame(encoded.gzip(), encoded.gzip());
+        byte[] inflated = new GZIPInputStream(new ByteArrayInputStream(encoded.gzip())).readAllBytes();
+        assertArrayEquals(encoded.json(), inflated);
+    }
+
+    @Test
+    public void compressible_SmallBody_IsFalse() {
+        assertFalse(noteJsonCache.get(note(1L, "tiny"), toDto).compressible());
+    }
+
+    private static Note note(Long version, String content) {
+        Note note = new Note();
+        note.setId("1");
+        note.setContent(content);
+        note.setVersion(version);
+        return note;
+    }
+}
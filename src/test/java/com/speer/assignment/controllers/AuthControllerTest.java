@@ -0,0 +1,54 @@
+package com.speer.assignment.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.speer.assignment.dto.LoginRequest;
+import com.speer.assignment.service.AuthService;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class AuthControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private AuthService authService;
+
+    @InjectMocks
+    private AuthController authController;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        RestExceptionHandler exceptionHandler = new RestExceptionHandler();
+        ReflectionTestUtils.setField(exceptionHandler, "retryAfterSeconds", 2);
+        mockMvc = MockMvcBuilders.standaloneSetup(authController)
+                .setControllerAdvice(exceptionHandler)
+                .build();
+    }
+
+    @Test
+    public void login_ShouldReturnServiceUnavailable_WhenHashingQueueIsFull() throws Exception {
+        when(authService.login(any(LoginRequest.class))).thenThrow(new RejectedExecutionException("full"));
+
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(new LoginRequest("alice", "secret"))))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"));
+    }
+}
@@ -0,0 +1,35 @@
+package com.speer.assignment.controllers;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ContentCodingsTest {
+
+    @Test
+    public void acceptsGzip_NamedWithoutOrWithPositiveQ() {
+        assertTrue(ContentCodings.acceptsGzip("gzip"));
+        assertTrue(ContentCodings.acceptsGzip("deflate, gzip;q=0.5"));
+        assertTrue(ContentCodings.acceptsGzip("GZIP ; Q=1.0"));
+    }
+
+    @Test
+    public void acceptsGzip_ZeroQ_Refuses() {
+        assertFalse(ContentCodings.acceptsGzip("gzip;q=0"));
+        assertFalse(ContentCodings.acceptsGzip("gzip;q=0.000, *;q=1"));
+    }
+
+    @Test
+    public void acceptsGzip_WildcardCoversUnnamedCodings() {
+        assertTrue(ContentCodings.acceptsGzip("*"));
+        assertFalse(ContentCodings.acceptsGzip("*;q=0"));
+        assertFalse(ContentCodings.acceptsGzip("identity, br"));
+    }
+
+    @Test
+    public void acceptsGzip_MissingOrMalformed_Refuses() {
+        assertFalse(ContentCodings.acceptsGzip(null));
+        assertFalse(ContentCodings.acceptsGzip(""));
+        assertFalse(ContentCodings.acceptsGzip("gzip;q=high"));
+    }
+}
@@ -1,26 +1,57 @@
 package com.speer.assignment.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.gridfs.model.GridFSFile;
+import com.speer.assignment.cache.NoteCache;
+import com.speer.assignment.cache.NoteJsonCache;
+import com.speer.assignment.dto.BulkShareDto;
 import com.speer.assignment.dto.NoteDto;
 import com.speer.assignment.dto.ShareNoteDto;
 import com.speer.assignment.entity.Note;
+import com.speer.assignment.entity.NoteSummary;
+import com.speer.assignment.repository.NoteBodyStore;
 import com.speer.assignment.repository.NoteRepository;
+import com.speer.assignment.search.NoteSearchEngine;
+import com.speer.assignment.security.NoteAccessIndex;
+import com.speer.assignment.security.UserPrincipal;
+import com.speer.assignment.service.NoteExportService;
+import com.speer.assignment.service.NoteImportService;
+import com.speer.assignment.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonObjectId;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.gridfs.GridFsResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.server.ResponseStatusException;
 
-import java.util.ArrayList;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -31,43 +62,122 @@ public class NoteControllerTest {
     @Mock
     private NoteRepository noteRepository;
 
+    @Mock
+    private NoteAccessIndex noteAccessIndex;
+
+    @Mock
+    private NoteCache noteCache;
+
+    @Spy
+    private NoteJsonCache noteJsonCache = new NoteJsonCache(new ObjectMapper(), new SimpleMeterRegistry(), 1024 * 1024, 1024);
+
+    @Mock
+    private NoteSearchEngine noteSearchEngine;
+
+    @Mock
+    private NoteImportService noteImportService;
+
+    @Mock
+    private NoteExportService noteExportService;
+
+    @Mock
+    private NoteBodyStore noteBodyStore;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private UserService userService;
+
+    private final Principal principal = new UsernamePasswordAuthenticationToken(
+            new UserPrincipal("u1", "alice", null, Collections.emptyList()), null, Collections.emptyList());
+
     @InjectMocks
     private NoteController noteController;
 
     @Before
     public void setup() {
         MockitoAnnotations.openMocks(this);
+        when(noteAccessIndex.canRead(anyString(), eq("u1"))).thenReturn(true);
+        when(noteAccessIndex.isOwner(anyString(), eq("u1"))).thenReturn(true);
         mockMvc = MockMvcBuilders.standaloneSetup(noteController).build();
     }
 
     @Test
     public void getAllNotes_ShouldReturnListOfNotes() throws Exception {
-        Note note1 = new Note();
+        NoteSummary note1 = new NoteSummary();
         note1.setId("1");
         note1.setTitle("Note 1");
-        note1.setContent("Content 1");
+        note1.setSnippet("Content 1");
 
-        Note note2 = new Note();
+        NoteSummary note2 = new NoteSummary();
         note2.setId("2");
         note2.setTitle("Note 2");
-        note2.setContent("Content 2");
+        note2.setSnippet("Content 2");
 
-        List<Note> notes = Arrays.asList(note1, note2);
+        List<NoteSummary> notes = Arrays.asList(note1, note2);
 
-        when(noteRepository.findAll()).thenReturn(notes);
+        when(noteRepository.streamVisibleTo("u1", null, 21)).thenReturn(notes.stream());
 
-        mockMvc.perform(get("/api/notes"))
+        mockMvc.perform(get("/api/notes").principal(principal))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.length()").value(notes.size()))
-                .andExpect(jsonPath("$[0].id").value(note1.getId()))
-                .andExpect(jsonPath("$[0].title").value(note1.getTitle()))
-                .andExpect(jsonPath("$[0].content").value(note1.getContent()))
-                .andExpect(jsonPath("$[1].id").value(note2.getId()))
-                .andExpect(jsonPath("$[1].title").value(note2.getTitle()))
-                .andExpect(jsonPath("$[1].content").value(note2.getContent()))
+                .andExpect(jsonPath("$.notes.length()").value(notes.size()))
+                .andExpect(jsonPath("$.notes[0].id").value(note1.getId()))
+                .andExpect(jsonPath("$.notes[0].title").value(note1.getTitle()))
+                .andExpect(jsonPath("$.notes[0].snippet").value(note1.getSnippet()))
+                .andExpect(jsonPath("$.notes[1].id").value(note2.getId()))
+                .andExpect(jsonPath("$.notes[1].title").value(note2.getTitle()))
+                .andExpect(jsonPath("$.notes[1].snippet").value(note2.getSnippet()))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist())
                 .andReturn();
 
-        verify(noteRepository, times(1)).findAll();
+        verify(noteRepository, times(1)).streamVisibleTo("u1", null, 21);
+    }
+
+    @Test
+    public void getSharedNotes_ShouldReturnNotesSharedWithCaller() throws Exception {
+        NoteSummary shared = new NoteSummary();
+        shared.setId("64a0c0ffee0000000000000a");
+        shared.setOwner("bob");
+        shared.setTitle("From Bob");
+        NoteSummary more = new NoteSummary();
+        more.setId("64a0c0ffee0000000000000b");
+
+        when(noteRepository.streamSharedWith("u1", null, 2)).thenReturn(Stream.of(shared, more));
+
+        mockMvc.perform(get("/api/notes/shared").param("size", "1").principal(principal))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.notes.length()").value(1))
+                .andExpect(jsonPath("$.notes[0].owner").value("bob"))
+                .andExpect(jsonPath("$.notes[0].title").value("From Bob"))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty());
+
+        verify(noteRepository, never()).streamVisibleTo(anyString(), any(), anyInt());
+    }
+
+    @Test
+    public void getAllNotes_ShouldReturnCursor_WhenMoreNotesExist() throws Exception {
+        NoteSummary note1 = new NoteSummary();
+        note1.setId("64a0c0ffee0000000000000a");
+        NoteSummary note2 = new NoteSummary();
+        note2.setId("64a0c0ffee0000000000000b");
+
+        when(noteRepository.streamVisibleTo("u1", null, 2)).thenReturn(Stream.of(note1, note2));
+
+        String cursor = mockMvc.perform(get("/api/notes").param("size", "1").principal(principal))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.notes.length()").value(1))
+                .andExpect(jsonPath("$.notes[0].id").value(note1.getId()))
+                .andExpect(jsonPath("$.nextCursor").isString())
+                .andReturn().getResponse().getContentAsString();
+
+        String nextCursor = objectMapper.readTree(cursor).get("nextCursor").asText();
+        when(noteRepository.streamVisibleTo("u1", note1.getId(), 2)).thenReturn(Stream.of(note2));
+
+        mockMvc.perform(get("/api/notes").param("size", "1").param("cursor", nextCursor).principal(principal))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.notes[0].id").value(note2.getId()))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
     }
 
     @Test
@@ -78,29 +188,185 @@ public class NoteControllerTest {
         note.setTitle("Note 1");
         note.setContent("Content 1");
 
-        when(noteRepository.findById(noteId)).thenReturn(Optional.of(note));
+        when(noteCache.findById(noteId)).thenReturn(Optional.of(note));
 
-        mockMvc.perform(get("/api/notes/{id}", noteId))
+        mockMvc.perform(get("/api/notes/{id}", noteId).principal(principal))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(note.getId()))
                 .andExpect(jsonPath("$.title").value(note.getTitle()))
                 .andExpect(jsonPath("$.content").value(note.getContent()))
                 .andReturn();
 
-        verify(noteRepository, times(1)).findById(noteId);
+        verify(noteCache, times(1)).findById(noteId);
     }
 
     @Test
     public void getNoteById_ShouldReturnNotFound_WhenNoteNotFound() throws Exception {
         String noteId = "1";
 
-        when(noteRepository.findById(noteId)).thenReturn(Optional.empty());
+        when(noteCache.findById(noteId)).thenReturn(Optional.empty());
 
-        mockMvc.perform(get("/api/notes/{id}", noteId))
+        mockMvc.perform(get("/api/notes/{id}", noteId).principal(principal))
                 .andExpect(status().isNotFound())
                 .andReturn();
 
-        verify(noteRepository, times(1)).findById(noteId);
+        verify(noteCache, times(1)).findById(noteId);
+    }
+
+    @Test
+    public void getNoteById_ShouldReturnNotFound_WithoutIo_WhenNotReadable() throws Exception {
+        when(noteAccessIndex.canRead("1", "u1")).thenReturn(false);
+
+        mockMvc.perform(get("/api/notes/{id}", "1").principal(principal))
+                .andExpect(status().isNotFound());
+
+        verifyNoInteractions(noteCache, noteRepository, noteBodyStore);
+    }
+
+    @Test
+    public void getNoteById_PlainTextRange_ReturnsPartialContent() throws Exception {
+        Note note = new Note();
+        note.setId("1");
+        note.setContent("0123456789");
+
+        when(noteCache.findById("1")).thenReturn(Optional.of(note));
+
+        mockMvc.perform(get("/api/notes/{id}", "1").principal(principal)
+                        .accept(MediaType.TEXT_PLAIN)
+                        .header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+                .andExpect(content().string("2345"));
+    }
+
+    @Test
+    public void getNoteById_UnsatisfiableRange_Returns416() throws Exception {
+        Note note = new Note();
+        note.setId("1");
+        note.setContent("0123456789");
+
+        when(noteCache.findById("1")).thenReturn(Optional.of(note));
+
+        mockMvc.perform(get("/api/notes/{id}", "1").principal(principal)
+                        .accept(MediaType.TEXT_PLAIN)
+                        .header(HttpHeaders.RANGE, "bytes=20-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+    }
+
+    @Test
+    public void getNoteById_SpilledBody_StreamsFromStore() throws Exception {
+        ObjectId contentRef = new ObjectId();
+        Note note = new Note();
+        note.setId("1");
+        note.setTitle("Big note");
+        note.setContentRef(contentRef);
+        byte[] body = "stored in GridFS".getBytes(StandardCharsets.UTF_8);
+        GridFSFile file = new GridFSFile(new BsonObjectId(contentRef), "1", body.length, 255 * 1024, new Date(),
+                new Document("noteId", "1"));
+
+        when(noteCache.findById("1")).thenReturn(Optional.of(note));
+        when(noteBodyStore.open(contentRef)).thenReturn(new GridFsResource(file, new ByteArrayInputStream(body)));
+
+        mockMvc.perform(get("/api/notes/{id}", "1").principal(principal))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Big note"))
+                .andExpect(jsonPath("$.content").value("stored in GridFS"));
+    }
+
+    @Test
+    public void getNoteById_MatchingIfNoneMatch_Returns304WithoutLoadingNote() throws Exception {
+        when(noteCache.getIfPresent("1")).thenReturn(Optional.empty());
+        when(noteRepository.findVersion("1")).thenReturn(3L);
+
+        mockMvc.perform(get("/api/notes/{id}", "1").principal(principal).header(HttpHeaders.IF_NONE_MATCH, "\"v3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"v3\""));
+
+        verify(noteCache, never()).findById("1");
+    }
+
+    @Test
+    public void getNoteById_StaleIfNoneMatch_ReturnsNoteWithCurrentETag() throws Exception {
+        Note note = new Note();
+        note.setId("1");
+        note.setContent("Content 1");
+        note.setVersion(4L);
+
+        when(noteCache.getIfPresent("1")).thenReturn(Optional.of(note));
+        when(noteCache.findById("1")).thenReturn(Optional.of(note));
+
+        mockMvc.perform(get("/api/notes/{id}", "1").principal(principal).header(HttpHeaders.IF_NONE_MATCH, "\"v3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"v4\""))
+                .andExpect(jsonPath("$.content").value("Content 1"));
+    }
+
+    @Test
+    public void getNoteById_AcceptsGzip_TagsGzippedBodySeparately() throws Exception {
+        Note note = new Note();
+        note.setId("1");
+        note.setContent(String.join("", Collections.nCopies(2048, "a")));
+        note.setVersion(3L);
+
+        when(noteCache.findById("1")).thenReturn(Optional.of(note));
+
+        mockMvc.perform(get("/api/notes/{id}", "1").principal(principal).header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"v3-gz\""));
+
+        mockMvc.perform(get("/api/notes/{id}", "1").principal(principal))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"v3\""));
+    }
+
+    @Test
+    public void getNoteById_GzipRefusedByQValue_SendsIdentity() throws Exception {
+        Note note = new Note();
+        note.setId("1");
+        note.setContent(String.join("", Collections.nCopies(2048, "a")));
+        note.setVersion(3L);
+
+        when(noteCache.findById("1")).thenReturn(Optional.of(note));
+
+        mockMvc.perform(get("/api/notes/{id}", "1").principal(principal).header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"v3\""));
+    }
+
+    @Test
+    public void getNoteById_MatchingGzipIfNoneMatch_Returns304() throws Exception {
+        when(noteCache.getIfPresent("1")).thenReturn(Optional.empty());
+        when(noteRepository.findVersion("1")).thenReturn(3L);
+
+        mockMvc.perform(get("/api/notes/{id}", "1").principal(principal)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"v3-gz\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"v3-gz\""));
+
+        verify(noteCache, never()).findById("1");
+    }
+
+    @Test
+    public void getAllNotes_MatchingIfNoneMatch_Returns304() throws Exception {
+        NoteSummary note = new NoteSummary();
+        note.setId("1");
+        note.setVersion(1L);
+
+        when(noteRepository.streamVisibleTo("u1", null, 21)).thenReturn(Stream.of(note), Stream.of(note));
+
+        String etag = mockMvc.perform(get("/api/notes").principal(principal))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/notes").principal(principal).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
     }
 
     @Test
@@ -117,6 +383,7 @@ public class NoteControllerTest {
         when(noteRepository.save(any(Note.class))).thenReturn(createdNote);
 
         mockMvc.perform(post("/api/notes")
+                        .principal(principal)
                         .contentType("application/json")
                         .content("{\"title\":\"New Note\",\"content\":\"New Content\"}"))
                 .andExpect(status().isOk())
@@ -128,6 +395,19 @@ public class NoteControllerTest {
         verify(noteRepository, times(1)).save(any(Note.class));
     }
 
+    @Test
+    public void createNote_ShouldIgnoreClientSuppliedId() throws Exception {
+        when(noteRepository.save(any(Note.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        mockMvc.perform(post("/api/notes")
+                        .principal(principal)
+                        .contentType("application/json")
+                        .content("{\"id\":\"abc\",\"title\":\"New Note\"}"))
+                .andExpect(status().isOk());
+
+        verify(noteRepository).save(argThat(note -> note.getId() == null));
+    }
+
     @Test
     public void updateNote_ShouldReturnUpdatedNote() throws Exception {
         String noteId = "1";
@@ -135,60 +415,119 @@ public class NoteControllerTest {
         noteDto.setTitle("Updated Note");
         noteDto.setContent("Updated Content");
 
-        Note existingNote = new Note();
-        existingNote.setId(noteId);
-        existingNote.setTitle("Note 1");
-        existingNote.setContent("Content 1");
-
         Note updatedNote = new Note();
         updatedNote.setId(noteId);
         updatedNote.setTitle(noteDto.getTitle());
         updatedNote.setContent(noteDto.getContent());
+        updatedNote.setVersion(2L);
 
-        when(noteRepository.findById(noteId)).thenReturn(Optional.of(existingNote));
-        when(noteRepository.save(any(Note.class))).thenReturn(updatedNote);
+        when(noteRepository.updateFields(noteId, "u1", null, "Updated Note", "Updated Content")).thenReturn(updatedNote);
 
         mockMvc.perform(put("/api/notes/{id}", noteId)
+                        .principal(principal)
                         .contentType("application/json")
                         .content("{\"title\":\"Updated Note\",\"content\":\"Updated Content\"}"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(updatedNote.getId()))
                 .andExpect(jsonPath("$.title").value(updatedNote.getTitle()))
                 .andExpect(jsonPath("$.content").value(updatedNote.getContent()))
+                .andExpect(jsonPath("$.version").value(2))
                 .andReturn();
 
-        verify(noteRepository, times(1)).findById(noteId);
-        verify(noteRepository, times(1)).save(any(Note.class));
+        verify(noteRepository, never()).findById(noteId);
+        verify(noteRepository, never()).save(any(Note.class));
+        verify(noteCache, times(1)).put(updatedNote);
     }
 
     @Test
     public void updateNote_ShouldReturnNotFound_WhenNoteNotFound() throws Exception {
         String noteId = "1";
-        NoteDto noteDto = new NoteDto();
-        noteDto.setTitle("Updated Note");
-        noteDto.setContent("Updated Content");
 
-        when(noteRepository.findById(noteId)).thenReturn(Optional.empty());
+        when(noteRepository.updateFields(noteId, "u1", null, "Updated Note", "Updated Content")).thenReturn(null);
 
         mockMvc.perform(put("/api/notes/{id}", noteId)
+                        .principal(principal)
                         .contentType("application/json")
                         .content("{\"title\":\"Updated Note\",\"content\":\"Updated Content\"}"))
                 .andExpect(status().isNotFound())
                 .andReturn();
 
-        verify(noteRepository, times(1)).findById(noteId);
         verify(noteRepository, never()).save(any(Note.class));
     }
 
+    @Test
+    public void updateNote_ShouldReturnNotFound_WhenCallerIsNotOwner() throws Exception {
+        String noteId = "1";
+        when(noteAccessIndex.isOwner(noteId, "u1")).thenReturn(false);
+
+        mockMvc.perform(put("/api/notes/{id}", noteId)
+                        .principal(principal)
+                        .contentType("application/json")
+                        .content("{\"title\":\"Updated Note\"}"))
+                .andExpect(status().isNotFound());
+
+        verifyNoInteractions(noteRepository);
+    }
+
+    @Test
+    public void patchNote_ShouldOnlySetSuppliedFields() throws Exception {
+        String noteId = "1";
+        Note patchedNote = new Note();
+        patchedNote.setId(noteId);
+        patchedNote.setTitle("Renamed");
+        patchedNote.setContent("Content 1");
+        patchedNote.setVersion(4L);
+
+        when(noteRepository.updateFields(noteId, "u1", 3L, "Renamed", null)).thenReturn(patchedNote);
+
+        mockMvc.perform(patch("/api/notes/{id}", noteId)
+                        .principal(principal)
+                        .contentType("application/json")
+                        .content("{\"title\":\"Renamed\",\"version\":3}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Renamed"))
+                .andExpect(jsonPath("$.content").value("Content 1"))
+                .andExpect(jsonPath("$.version").value(4));
+
+        verify(noteRepository, times(1)).updateFields(noteId, "u1", 3L, "Renamed", null);
+    }
+
+    @Test
+    public void patchNote_ShouldReturnConflict_WhenVersionIsStale() throws Exception {
+        String noteId = "1";
+
+        when(noteRepository.updateFields(noteId, "u1", 3L, "Renamed", null)).thenReturn(null);
+        when(noteRepository.existsByIdAndOwner(noteId, "u1")).thenReturn(true);
+
+        mockMvc.perform(patch("/api/notes/{id}", noteId)
+                        .principal(principal)
+                        .contentType("application/json")
+                        .content("{\"title\":\"Renamed\",\"version\":3}"))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     public void deleteNote_ShouldReturnNoContent() throws Exception {
         String noteId = "1";
 
-        mockMvc.perform(delete("/api/notes/{id}", noteId))
+        mockMvc.perform(delete("/api/notes/{id}", noteId).principal(principal))
                 .andExpect(status().isNoContent())
                 .andReturn();
 
-        verify(noteRepository, times(1)).deleteById(noteId);
+        verify(noteRepository, times(1)).deleteWithBody(noteId);
+        verify(noteAccessIndex, times(1)).remove(noteId);
+    }
+
+    @Test
+    public void deleteNote_ShouldReturnNotFound_WhenCallerIsNotOwner() throws Exception {
+        String noteId = "1";
+        when(noteAccessIndex.isOwner(noteId, "u1")).thenReturn(false);
+
+        mockMvc.perform(delete("/api/notes/{id}", noteId).principal(principal))
+                .andExpect(status().isNotFound());
+
+        verify(noteRepository, never()).deleteWithBody(anyString());
+        verify(noteAccessIndex, never()).remove(anyString());
     }
 
     @Test
@@ -196,46 +535,51 @@ public class NoteControllerTest {
         String noteId = "1";
         ShareNoteDto shareNoteDto = new ShareNoteDto();
         shareNoteDto.setNoteId(noteId);
-        shareNoteDto.setSharedWith("2");
+        shareNoteDto.setSharedWith("bob");
+
+        when(userService.resolveIds(Collections.singletonList("bob"))).thenReturn(Collections.singletonList("u2"));
+        when(noteRepository.shareWith(noteId, "u1", Collections.singletonList("u2"))).thenReturn(1L);
 
         mockMvc.perform(post("/api/notes/{id}/share", noteId)
+                        .principal(principal)
                         .contentType("application/json")
-                        .content("{\"noteId\":\"1\",\"sharedWith\":\"2\"}"))
+                        .content("{\"noteId\":\"1\",\"sharedWith\":\"bob\"}"))
                 .andExpect(status().isNoContent())
                 .andReturn();
 
-        // Verify the necessary interactions or assertions for the shareNote method
-        verify(noteRepository, times(1)).findById(noteId);
-        // Add more verifications as needed
+        verify(noteRepository, times(1)).shareWith(noteId, "u1", Collections.singletonList("u2"));
+        verify(noteRepository, never()).findById(noteId);
+        verify(noteCache, times(1)).invalidate(noteId);
     }
 
     @Test
     public void searchNotes_ShouldReturnMatchingNotes() throws Exception {
         String query = "example";
-        Note note1 = new Note();
+        NoteSummary note1 = new NoteSummary();
         note1.setId("1");
         note1.setTitle("Note 1");
-        note1.setContent("Example content");
+        note1.setSnippet("Example content");
 
-        Note note2 = new Note();
+        NoteSummary note2 = new NoteSummary();
         note2.setId("2");
         note2.setTitle("Note 2");
-        note2.setContent("Content");
+        note2.setSnippet("Content");
 
-        List<Note> matchingNotes = Arrays.asList(note1);
+        List<NoteSummary> matchingNotes = Arrays.asList(note1);
 
-        when(noteRepository.findByContentContaining(query)).thenReturn(matchingNotes);
+        when(noteSearchEngine.search("u1", query, PageRequest.of(0, 20))).thenReturn(matchingNotes);
 
         mockMvc.perform(get("/api/notes/search")
-                        .param("q", query))
+                        .param("q", query)
+                        .principal(principal))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(matchingNotes.size()))
                 .andExpect(jsonPath("$[0].id").value(note1.getId()))
                 .andExpect(jsonPath("$[0].title").value(note1.getTitle()))
-                .andExpect(jsonPath("$[0].content").value(note1.getContent()))
+                .andExpect(jsonPath("$[0].snippet").value(note1.getSnippet()))
                 .andReturn();
 
-        verify(noteRepository, times(1)).findByContentContaining(query);
+        verify(noteSearchEngine, times(1)).search("u1", query, PageRequest.of(0, 20));
     }
 
 
@@ -245,24 +589,45 @@ public class NoteControllerTest {
         String sharedWith = "user2";
         ShareNoteDto shareNoteDto = new ShareNoteDto();
         shareNoteDto.setSharedWith(sharedWith);
-        Note existingNote = new Note();
-        existingNote.setId(noteId);
-        List<String> sharedWithList = new ArrayList<>();
-        existingNote.setSharedWith(sharedWithList);
 
-        when(noteRepository.findById(noteId)).thenReturn(Optional.of(existingNote));
-        when(noteRepository.save(existingNote)).thenReturn(existingNote);
+        when(userService.resolveIds(Collections.singletonList(sharedWith))).thenReturn(Collections.singletonList("u2"));
+        when(noteRepository.shareWith(noteId, "u1", Collections.singletonList("u2"))).thenReturn(1L);
 
         mockMvc.perform(post("/api/notes/{id}/share", noteId)
+                        .principal(principal)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(asJsonString(shareNoteDto)))
                 .andExpect(status().isNoContent());
 
-        verify(noteRepository, times(1)).findById(noteId);
-        verify(noteRepository, times(1)).save(existingNote);
+        verify(noteRepository, times(1)).shareWith(noteId, "u1", Collections.singletonList("u2"));
+        verify(noteRepository, never()).save(any(Note.class));
+        verify(noteAccessIndex, times(1)).shared(noteId, "u1", Collections.singletonList("u2"));
+        verify(noteSearchEngine, times(1)).shared(noteId, "u1", Collections.singletonList("u2"));
+    }
+
+    @Test
+    public void shareNote_ShouldReturnNotFound_WhenUserNotFound() throws Exception {
+        ShareNoteDto shareNoteDto = new ShareNoteDto();
+        shareNoteDto.setSharedWith("nobody");
+
+        when(userService.resolveIds(Collections.singletonList("nobody")))
+                .thenThrow(new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+
+        mockMvc.perform(post("/api/notes/{id}/share", "1")
+                        .principal(principal)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(shareNoteDto)))
+                .andExpect(status().isNotFound());
+
+        verify(noteRepository, never()).shareWith(anyString(), anyString(), anyCollection());
+    }
+
+    @Test
+    public void requests_ShouldBeUnauthorized_WithoutUserPrincipal() throws Exception {
+        Principal bare = () -> "u1";
 
-        List<String> updatedSharedWithList = existingNote.getSharedWith();
-        assert updatedSharedWithList.contains(sharedWith);
+        mockMvc.perform(get("/api/notes/{id}", "1").principal(bare))
+                .andExpect(status().isUnauthorized());
     }
 
     @Test
@@ -272,15 +637,89 @@ public class NoteControllerTest {
         ShareNoteDto shareNoteDto = new ShareNoteDto();
         shareNoteDto.setSharedWith(sharedWith);
 
-        when(noteRepository.findById(noteId)).thenReturn(Optional.empty());
+        when(userService.resolveIds(Collections.singletonList(sharedWith))).thenReturn(Collections.singletonList("u2"));
+        when(noteRepository.shareWith(noteId, "u1", Collections.singletonList("u2"))).thenReturn(0L);
 
         mockMvc.perform(post("/api/notes/{id}/share", noteId)
+                        .principal(principal)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(asJsonString(shareNoteDto)))
                 .andExpect(status().isNotFound());
 
-        verify(noteRepository, times(1)).findById(noteId);
-        verify(noteRepository, never()).save(any(Note.class));
+        verify(noteRepository, never()).findById(noteId);
+        verify(noteCache, never()).invalidate(noteId);
+    }
+
+    @Test
+    public void unshareNote_ShouldReturnNoContent() throws Exception {
+        String noteId = "1";
+
+        when(userService.resolveIds(Collections.singletonList("user2"))).thenReturn(Collections.singletonList("u2"));
+        when(noteRepository.unshareWith(noteId, "u1", "u2")).thenReturn(1L);
+
+        mockMvc.perform(delete("/api/notes/{id}/share/{username}", noteId, "user2")
+                        .principal(principal))
+                .andExpect(status().isNoContent());
+
+        verify(noteRepository, times(1)).unshareWith(noteId, "u1", "u2");
+        verify(noteSearchEngine, times(1)).unshared(noteId, "u1", "u2");
+    }
+
+    @Test
+    public void shareNotes_ShouldReturnBulkCounts() throws Exception {
+        List<String> noteIds = Arrays.asList("1", "2");
+        List<String> usernames = Arrays.asList("user2", "user3");
+        BulkShareDto bulkShareDto = new BulkShareDto();
+        bulkShareDto.setNoteIds(noteIds);
+        bulkShareDto.setSharedWith(usernames);
+
+        BulkWriteResult result = mock(BulkWriteResult.class);
+        when(result.getMatchedCount()).thenReturn(1);
+        when(result.getModifiedCount()).thenReturn(1);
+        List<String> userIds = Arrays.asList("u2", "u3");
+        when(userService.resolveIds(usernames)).thenReturn(userIds);
+        when(noteRepository.shareAllWith(noteIds, "u1", userIds)).thenReturn(result);
+
+        mockMvc.perform(post("/api/notes/share")
+                        .principal(principal)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(bulkShareDto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.matched").value(1))
+                .andExpect(jsonPath("$.modified").value(1));
+
+        verify(noteRepository, times(1)).shareAllWith(noteIds, "u1", userIds);
+        verify(noteCache, times(1)).invalidate("1");
+        verify(noteCache, times(1)).invalidate("2");
+    }
+
+    @Test
+    public void exportNotes_GzipParam_SendsGzipFile() throws Exception {
+        mockMvc.perform(get("/api/notes/export").param("gzip", "true").principal(principal))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/gzip"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"notes.ndjson.gz\""));
+
+        verify(noteExportService, times(1)).exportNotes(eq("u1"), any());
+    }
+
+    @Test
+    public void exportNotes_AcceptEncoding_SendsEncodedNdjson() throws Exception {
+        mockMvc.perform(get("/api/notes/export").header(HttpHeaders.ACCEPT_ENCODING, "gzip").principal(principal))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"notes.ndjson\""));
+    }
+
+    @Test
+    public void exportNotes_GzipRefusedByQValue_SendsIdentity() throws Exception {
+        mockMvc.perform(get("/api/notes/export").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity")
+                        .principal(principal))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING));
     }
 
     private String asJsonString(Object object) throws Exception {
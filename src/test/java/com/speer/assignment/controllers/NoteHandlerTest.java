@@ -0,0 +1,232 @@
+package com.speer.assignment.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.speer.assignment.dto.NoteDto;
+import com.speer.assignment.entity.Note;
+import com.speer.assignment.entity.NoteSummary;
+import com.speer.assignment.repository.NoteBodyStore;
+import com.speer.assignment.repository.ReactiveNoteRepository;
+import com.speer.assignment.search.NoteSearchEngine;
+import com.speer.assignment.security.NoteAccessIndex;
+import com.speer.assignment.security.UserPrincipal;
+import com.speer.assignment.service.UserService;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.security.Principal;
+import java.util.Collections;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class NoteHandlerTest {
+
+    private WebTestClient webTestClient;
+
+    @Mock
+    private ReactiveNoteRepository noteRepository;
+
+    @Mock
+    private NoteAccessIndex noteAccessIndex;
+
+    @Mock
+    private NoteSearchEngine noteSearchEngine;
+
+    @Mock
+    private NoteBodyStore noteBodyStore;
+
+    @Mock
+    private UserService userService;
+
+    private final Principal principal = new UsernamePasswordAuthenticationToken(
+            new UserPrincipal("u1", "alice", null, Collections.emptyList()), null, Collections.emptyList());
+
+    private NoteHandler noteHandler;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        when(noteAccessIndex.canRead(anyString(), eq("u1"))).thenReturn(true);
+        when(noteAccessIndex.isOwner(anyString(), eq("u1"))).thenReturn(true);
+        noteHandler = new NoteHandler(noteRepository, noteAccessIndex, noteSearchEngine, noteBodyStore, userService,
+                new ObjectMapper());
+        ReflectionTestUtils.setField(noteHandler, "searchEngine", "text");
+        webTestClient = WebTestClient.bindToRouterFunction(new NoteRoutes().noteRouter(noteHandler))
+                .webFilter((exchange, chain) -> chain.filter(exchange.mutate().principal(Mono.just(principal)).build()))
+                .build();
+    }
+
+    @Test
+    public void getAllNotes_ShouldStreamPageAndCursor() {
+        when(noteRepository.findVisibleTo("u1", null, 2))
+                .thenReturn(Flux.just(summary("64a0c0ffee0000000000000a", "Note 1"), summary("64a0c0ffee0000000000000b", "Note 2")));
+
+        webTestClient.get().uri("/api/notes?size=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.notes.length()").isEqualTo(1)
+                .jsonPath("$.notes[0].id").isEqualTo("64a0c0ffee0000000000000a")
+                .jsonPath("$.nextCursor").isEqualTo(NoteCursor.encode("64a0c0ffee0000000000000a"));
+    }
+
+    @Test
+    public void getAllNotes_ShouldReturnNullCursor_OnLastPage() {
+        when(noteRepository.findVisibleTo("u1", null, 21)).thenReturn(Flux.empty());
+
+        webTestClient.get().uri("/api/notes")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.notes.length()").isEqualTo(0)
+                .jsonPath("$.nextCursor").doesNotExist();
+    }
+
+    @Test
+    public void getAllNotes_ShouldReturnNotModified_WhenETagMatches() {
+        when(noteRepository.findVisibleTo("u1", null, 21)).thenReturn(Flux.just(summary("64a0c0ffee0000000000000a", "Note 1")));
+
+        String etag = webTestClient.get().uri("/api/notes")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists("ETag")
+                .returnResult(String.class).getResponseHeaders().getETag();
+
+        webTestClient.get().uri("/api/notes")
+                .header("If-None-Match", etag)
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    public void getNoteById_ShouldReturnNotFound_WhenMissing() {
+        when(noteRepository.findById("1")).thenReturn(Mono.empty());
+
+        webTestClient.get().uri("/api/notes/1")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void getNoteById_ShouldReturnNotFound_WithoutQuery_WhenNotReadable() {
+        when(noteAccessIndex.canRead("1", "u1")).thenReturn(false);
+
+        webTestClient.get().uri("/api/notes/1")
+                .exchange()
+                .expectStatus().isNotFound();
+
+        verify(noteRepository, never()).findById(anyString());
+    }
+
+    @Test
+    public void getNoteById_ShouldReturnNotModified_WithoutLoadingNote_WhenETagMatches() {
+        when(noteRepository.findVersion("1")).thenReturn(Mono.just(2L));
+
+        webTestClient.get().uri("/api/notes/1")
+                .header("If-None-Match", "\"v2\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals("ETag", "\"v2\"");
+
+        verify(noteRepository, never()).findById(anyString());
+    }
+
+    @Test
+    public void getNoteById_ShouldReturnNote_WhenETagIsStale() {
+        Note note = new Note();
+        note.setId("1");
+        note.setContent("Content");
+        note.setVersion(3L);
+        when(noteRepository.findVersion("1")).thenReturn(Mono.just(3L));
+        when(noteRepository.findById("1")).thenReturn(Mono.just(note));
+
+        webTestClient.get().uri("/api/notes/1")
+                .header("If-None-Match", "\"v2\"")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"v3\"")
+                .expectBody().jsonPath("$.content").isEqualTo("Content");
+    }
+
+    @Test
+    public void updateNote_ShouldReturnConflict_WhenVersionIsStale() {
+        when(noteRepository.updateFields("1", "u1", 3L, "Updated", null)).thenReturn(Mono.empty());
+        when(noteRepository.existsByIdAndOwner("1", "u1")).thenReturn(Mono.just(true));
+
+        NoteDto noteDto = new NoteDto();
+        noteDto.setTitle("Updated");
+        noteDto.setVersion(3L);
+
+        webTestClient.patch().uri("/api/notes/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(noteDto)
+                .exchange()
+                .expectStatus().isEqualTo(409);
+
+        verify(noteSearchEngine, never()).index(any(Note.class));
+    }
+
+    @Test
+    public void searchNotes_ShouldStreamTextQueryResults() {
+        when(noteRepository.searchVisibleTo("u1", "keyword", PageRequest.of(0, 20)))
+                .thenReturn(Flux.just(summary("1", "Keyword note")));
+
+        webTestClient.get().uri("/api/notes/search?q=keyword")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].title").isEqualTo("Keyword note")
+                .jsonPath("$[0].snippet").isEqualTo("Snippet")
+                .jsonPath("$[0].content").doesNotExist();
+
+        verify(noteSearchEngine, never()).search(any(), any(), any());
+    }
+
+    @Test
+    public void searchNotes_ShouldReturnNotModified_WhenETagMatches() {
+        when(noteRepository.searchVisibleTo("u1", "keyword", PageRequest.of(0, 20)))
+                .thenReturn(Flux.just(summary("1", "Keyword note")));
+
+        String etag = webTestClient.get().uri("/api/notes/search?q=keyword")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class).getResponseHeaders().getETag();
+
+        webTestClient.get().uri("/api/notes/search?q=keyword")
+                .header("If-None-Match", etag)
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    public void shareNote_ShouldStoreResolvedUserId() {
+        when(userService.resolveIds(Collections.singletonList("bob"))).thenReturn(Collections.singletonList("u2"));
+        when(noteRepository.shareWith("1", "u1", Collections.singletonList("u2"))).thenReturn(Mono.just(1L));
+
+        webTestClient.post().uri("/api/notes/1/share")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"sharedWith\":\"bob\"}")
+                .exchange()
+                .expectStatus().isNoContent();
+
+        verify(noteAccessIndex, times(1)).shared("1", "u1", Collections.singletonList("u2"));
+    }
+
+    private static NoteSummary summary(String id, String title) {
+        NoteSummary summary = new NoteSummary();
+        summary.setId(id);
+        summary.setTitle(title);
+        summary.setSnippet("Snippet");
+        return summary;
+    }
+}
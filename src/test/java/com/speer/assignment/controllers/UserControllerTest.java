@@ -11,12 +11,16 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.util.concurrent.CompletableFuture;
+
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class UserControllerTest {
@@ -44,11 +48,15 @@ public class UserControllerTest {
         registeredUser.setId("1");
         registeredUser.setUsername(userDto.getUsername());
 
-        when(userService.registerUser(any(UserDto.class))).thenReturn(registeredUser);
+        when(userService.registerUser(any(UserDto.class))).thenReturn(CompletableFuture.completedFuture(registeredUser));
 
-        mockMvc.perform(post("/api/users/register")
+        MvcResult result = mockMvc.perform(post("/api/users/register")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(asJsonString(userDto)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(registeredUser.getId()))
                 .andExpect(jsonPath("$.username").value(registeredUser.getUsername()))
@@ -66,7 +74,11 @@ public class UserControllerTest {
 
         when(userService.getUserById(userId)).thenReturn(user);
 
-        mockMvc.perform(get("/api/users/{id}", userId))
+        MvcResult result = mockMvc.perform(get("/api/users/{id}", userId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(user.getId()))
                 .andExpect(jsonPath("$.username").value(user.getUsername()))
@@ -81,7 +93,11 @@ public class UserControllerTest {
 
         when(userService.getUserById(userId)).thenReturn(null);
 
-        mockMvc.perform(get("/api/users/{id}", userId))
+        MvcResult result = mockMvc.perform(get("/api/users/{id}", userId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isNotFound())
                 .andReturn();
 
@@ -98,11 +114,15 @@ public class UserControllerTest {
         updatedUser.setId(userId);
         updatedUser.setUsername(userDto.getUsername());
 
-        when(userService.updateUser(userId, userDto)).thenReturn(updatedUser);
+        when(userService.updateUser(userId, userDto)).thenReturn(CompletableFuture.completedFuture(updatedUser));
 
-        mockMvc.perform(put("/api/users/{id}", userId)
+        MvcResult result = mockMvc.perform(put("/api/users/{id}", userId)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(asJsonString(userDto)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(updatedUser.getId()))
                 .andExpect(jsonPath("$.username").value(updatedUser.getUsername()))
@@ -115,7 +135,11 @@ public class UserControllerTest {
     public void deleteUser_ShouldReturnNoContent() throws Exception {
         String userId = "1";
 
-        mockMvc.perform(delete("/api/users/{id}", userId))
+        MvcResult result = mockMvc.perform(delete("/api/users/{id}", userId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isNoContent())
                 .andReturn();
 
@@ -0,0 +1,130 @@
+package com.speer.assignment.repository;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.flapdoodle.embed.mongo.MongodExecutable;
+import de.flapdoodle.embed.mongo.MongodStarter;
+import de.flapdoodle.embed.mongo.config.MongodConfig;
+import de.flapdoodle.embed.mongo.config.Net;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.process.runtime.Network;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * An embedded Mongo with the note template, indexes and repositories wired by hand the way the
+ * application context wires them, including {@link NoteContentConverter} and the
+ * {@link NoteBodyListener} events. Shared by the repository tests and the benchmarks, which
+ * measure the repository without booting Spring. Settings use the defaults from
+ * {@code application.properties}; callers can override them on the returned components.
+ */
+public class EmbeddedNotesMongo implements AutoCloseable {
+    private final MongodExecutable mongod;
+    private final MongoClient client;
+    private final GenericApplicationContext events;
+    private final MongoTemplate mongoTemplate;
+    private final NoteContentConverter contentConverter;
+    private final NoteBodyStore noteBodyStore;
+    private final MongoIndexManager indexManager;
+    private final MongoRepositoryFactory repositoryFactory;
+    private final NoteRepository noteRepository;
+
+    private EmbeddedNotesMongo(String database, Consumer<MongoClientSettings.Builder> clientSettings) throws IOException {
+        int port = Network.getFreeServerPort();
+        mongod = MongodStarter.getDefaultInstance().prepare(MongodConfig.builder()
+                .version(Version.Main.V4_0)
+                .net(new Net(port, Network.localhostIsIPv6()))
+                .build());
+        mongod.start();
+        MongoClientSettings.Builder settings = MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString("mongodb://localhost:" + port));
+        clientSettings.accept(settings);
+        client = MongoClients.create(settings.build());
+
+        contentConverter = new NoteContentConverter();
+        ReflectionTestUtils.setField(contentConverter, "thresholdBytes", 16384);
+        ReflectionTestUtils.setField(contentConverter, "maxTermsChars", 65536);
+        MongoCustomConversions conversions = NoteContentConverter.conversions(contentConverter);
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        SimpleMongoClientDatabaseFactory databaseFactory = new SimpleMongoClientDatabaseFactory(client, database);
+        mongoTemplate = new MongoTemplate(databaseFactory, converter);
+        noteBodyStore = new NoteBodyStore(databaseFactory, mongoTemplate);
+        ReflectionTestUtils.setField(noteBodyStore, "spillThresholdBytes", 4 * 1024 * 1024);
+
+        // A context of its own only to deliver the template's mapping events to the listener.
+        events = new GenericApplicationContext();
+        events.addApplicationListener(new NoteBodyListener(noteBodyStore, contentConverter));
+        events.refresh();
+        mongoTemplate.setApplicationContext(events);
+
+        NoteTextIndexInitializer textIndex = new NoteTextIndexInitializer(mongoTemplate);
+        ReflectionTestUtils.setField(textIndex, "titleWeight", 3);
+        ReflectionTestUtils.setField(textIndex, "contentWeight", 1);
+        indexManager = new MongoIndexManager(mongoTemplate, textIndex);
+        indexManager.ensureIndexes();
+
+        repositoryFactory = new MongoRepositoryFactory(mongoTemplate);
+        noteRepository = repositoryFactory.getRepository(NoteRepository.class,
+                RepositoryComposition.RepositoryFragments.just(
+                        new NoteRepositoryImpl(mongoTemplate, contentConverter, noteBodyStore)));
+    }
+
+    public static EmbeddedNotesMongo start(String database) throws IOException {
+        return start(database, settings -> { });
+    }
+
+    /** Starts Mongo with extra client settings, such as a command listener. */
+    public static EmbeddedNotesMongo start(String database, Consumer<MongoClientSettings.Builder> clientSettings)
+            throws IOException {
+        return new EmbeddedNotesMongo(database, clientSettings);
+    }
+
+    public MongoTemplate mongoTemplate() {
+        return mongoTemplate;
+    }
+
+    public NoteContentConverter contentConverter() {
+        return contentConverter;
+    }
+
+    public NoteBodyStore noteBodyStore() {
+        return noteBodyStore;
+    }
+
+    public MongoIndexManager indexManager() {
+        return indexManager;
+    }
+
+    public NoteRepository noteRepository() {
+        return noteRepository;
+    }
+
+    /** A plain Spring Data repository of the given type on the same template. */
+    public <T> T repository(Class<T> repositoryType) {
+        return repositoryFactory.getRepository(repositoryType);
+    }
+
+    @Override
+    public void close() {
+        events.close();
+        client.close();
+        mongod.stop();
+    }
+}
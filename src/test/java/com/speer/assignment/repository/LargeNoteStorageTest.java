@@ -0,0 +1,124 @@
+package com.speer.assignment.repository;
+
+import com.speer.assignment.entity.Note;
+import com.speer.assignment.entity.NoteSummary;
+import com.speer.assignment.search.TextIndexSearchEngine;
+import com.speer.assignment.search.TrigramSearchEngine;
+import com.speer.assignment.security.NoteAccessIndex;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Writes compressed and spilled notes through the repository against {@link EmbeddedNotesMongo}
+ * and checks what the write hands back and what list and search pages read.
+ */
+public class LargeNoteStorageTest {
+    private static final String TEXT = "Compressible body about walruses and their habits.\n".repeat(500);
+    private static final String SPILLED = "Spilled body about narwhals and their tusks.\n".repeat(2000);
+
+    private static EmbeddedNotesMongo mongo;
+    private static NoteRepository noteRepository;
+
+    @BeforeClass
+    public static void startMongo() throws Exception {
+        mongo = EmbeddedNotesMongo.start("large_notes");
+        noteRepository = mongo.noteRepository();
+        // Low enough for SPILLED to go to GridFS while TEXT stays inline.
+        ReflectionTestUtils.setField(mongo.noteBodyStore(), "spillThresholdBytes", 65536);
+    }
+
+    @AfterClass
+    public static void stopMongo() {
+        mongo.close();
+    }
+
+    @Test
+    public void save_CompressedContent_KeepsStoredFormOnTheEntity() {
+        Note saved = noteRepository.save(note("compressed-owner", TEXT));
+
+        assertTrue(saved.contentFootprint() < TEXT.length());
+        assertEquals(TEXT, saved.getContent());
+    }
+
+    @Test
+    public void updateFields_CompressedContent_ReturnsStoredForm() {
+        Note saved = noteRepository.save(note("update-owner", "short"));
+
+        Note updated = noteRepository.updateFields(saved.getId(), "update-owner", null, null, TEXT);
+
+        assertTrue(updated.contentFootprint() < TEXT.length());
+        assertEquals(TEXT, updated.getContent());
+    }
+
+    @Test
+    public void pages_CompressedContent_UsePreviewAsSnippet() {
+        noteRepository.save(note("page-owner", TEXT));
+
+        List<NoteSummary> page;
+        try (Stream<NoteSummary> rows = noteRepository.streamVisibleTo("page-owner", null, 10)) {
+            page = rows.collect(Collectors.toList());
+        }
+        List<NoteSummary> matches = noteRepository.searchVisibleTo("page-owner", "walruses", PageRequest.of(0, 10));
+
+        assertEquals(TEXT.substring(0, NoteSummaries.SNIPPET_LENGTH), page.get(0).getSnippet());
+        assertEquals(1, matches.size());
+        assertEquals(TEXT.substring(0, NoteSummaries.SNIPPET_LENGTH), matches.get(0).getSnippet());
+    }
+
+    @Test
+    public void save_SpilledContent_IsFoundByBothEngines() {
+        Note saved = noteRepository.save(note("spilled-owner", SPILLED));
+        TrigramSearchEngine trigram = new TrigramSearchEngine(noteRepository, accessIndex(), mongo.noteBodyStore());
+        trigram.rebuild();
+
+        assertNotNull(saved.getContentRef());
+        assertFoundWithPreview(new TextIndexSearchEngine(noteRepository).search("spilled-owner", "narwhals",
+                PageRequest.of(0, 10)), saved.getId());
+        assertFoundWithPreview(trigram.search("spilled-owner", "narwhals and their tusks", PageRequest.of(0, 10)),
+                saved.getId());
+    }
+
+    @Test
+    public void updateFields_SpilledContent_IsFoundByBothEngines() {
+        Note saved = noteRepository.save(note("spilled-update-owner", "short"));
+        TrigramSearchEngine trigram = new TrigramSearchEngine(noteRepository, accessIndex(), mongo.noteBodyStore());
+
+        Note updated = noteRepository.updateFields(saved.getId(), "spilled-update-owner", null, null, SPILLED);
+        trigram.index(updated);
+
+        assertNotNull(updated.getContentRef());
+        assertFoundWithPreview(new TextIndexSearchEngine(noteRepository).search("spilled-update-owner", "narwhals",
+                PageRequest.of(0, 10)), saved.getId());
+        assertFoundWithPreview(trigram.search("spilled-update-owner", "narwhals and their tusks", PageRequest.of(0, 10)),
+                saved.getId());
+    }
+
+    private static NoteAccessIndex accessIndex() {
+        NoteAccessIndex accessIndex = new NoteAccessIndex(noteRepository);
+        accessIndex.rebuild();
+        return accessIndex;
+    }
+
+    private static void assertFoundWithPreview(List<NoteSummary> matches, String id) {
+        assertEquals(1, matches.size());
+        assertEquals(id, matches.get(0).getId());
+        assertEquals(SPILLED.substring(0, NoteSummaries.SNIPPET_LENGTH), matches.get(0).getSnippet());
+    }
+
+    static Note note(String owner, String content) {
+        Note note = new Note();
+        note.setOwner(owner);
+        note.setTitle("Large note");
+        note.setContent(content);
+        return note;
+    }
+}
@@ -0,0 +1,116 @@
+package com.speer.assignment.repository;
+
+import com.speer.assignment.entity.NoteContent;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.Assert.*;
+
+public class NoteContentConverterTest {
+    private NoteContentConverter converter;
+
+    @Before
+    public void setup() {
+        converter = new NoteContentConverter();
+        ReflectionTestUtils.setField(converter, "thresholdBytes", 1024);
+        ReflectionTestUtils.setField(converter, "maxTermsChars", 64);
+    }
+
+    @Test
+    public void write_SmallContent_StaysString() {
+        assertEquals("short note", converter.write(NoteContent.of("short note"), null));
+    }
+
+    @Test
+    public void write_LargeContent_IsCompressedAndReadsBack() {
+        String text = "the same line over and over\n".repeat(200);
+
+        Object stored = converter.write(NoteContent.of(text), null);
+
+        assertTrue(stored instanceof Binary);
+        Binary binary = (Binary) stored;
+        assertEquals(NoteContentConverter.BINARY_SUBTYPE, binary.getType());
+        assertEquals(NoteContent.FORMAT_DEFLATE, binary.getData()[0]);
+        assertTrue(binary.length() < text.length() / 4);
+
+        NoteContent read = converter.read(stored, null);
+        assertTrue(read.isCompressed());
+        assertEquals(text, read.text());
+        assertEquals(text.substring(0, 50), read.prefix(50));
+    }
+
+    @Test
+    public void write_LoadedCompressedContent_IsNotRecompressed() {
+        byte[] compressed = NoteContent.compress("abc".repeat(1000));
+
+        Object stored = converter.write(NoteContent.fromCompressed(compressed), null);
+
+        assertSame(compressed, ((Binary) stored).getData());
+    }
+
+    @Test
+    public void read_LegacyString_IsPlainContent() {
+        NoteContent read = converter.read("legacy content", null);
+
+        assertFalse(read.isCompressed());
+        assertEquals("legacy content", read.text());
+    }
+
+    @Test
+    public void setContent_LargeContent_AddsSearchTermsAndPreview() {
+        String text = "Alpha beta, alpha GAMMA.\n".repeat(100);
+        Update update = new Update();
+
+        NoteContent stored = converter.setContent(update, text);
+
+        assertTrue(stored.isCompressed());
+
+        Document set = update.getUpdateObject().get("$set", Document.class);
+        assertTrue(set.get("content") instanceof Binary);
+        assertEquals("alpha beta gamma ", set.get(NoteContentConverter.SEARCH_TERMS));
+        assertEquals(text.substring(0, NoteSummaries.SNIPPET_LENGTH), set.get(NoteContentConverter.PREVIEW));
+    }
+
+    @Test
+    public void setContent_SmallContent_ClearsSearchTerms() {
+        Update update = new Update();
+
+        assertFalse(converter.setContent(update, "short note").isCompressed());
+
+        assertEquals("short note", update.getUpdateObject().get("$set", Document.class).get("content"));
+        assertTrue(update.getUpdateObject().get("$unset", Document.class).containsKey(NoteContentConverter.SEARCH_TERMS));
+        assertTrue(update.getUpdateObject().get("$unset", Document.class).containsKey(NoteContentConverter.PREVIEW));
+    }
+
+    @Test
+    public void searchTerms_StopAtCap() {
+        String terms = converter.searchTerms("word0 word1 word2 word3 word4 word5 word6 word7 word8 word9 word10 word11");
+
+        assertTrue(terms.length() <= 64);
+        assertTrue(terms.startsWith("word0 word1 "));
+    }
+
+    @Test
+    public void compressedContent_HashesStoredBytes() {
+        byte[] compressed = NoteContent.compress("abc".repeat(1000));
+        NoteContent first = NoteContent.fromCompressed(compressed);
+        NoteContent second = NoteContent.fromCompressed(compressed.clone());
+
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+    }
+
+    @Test
+    public void preview_CutsAtCodePoints() {
+        String text = "\uD83D\uDCDD".repeat(NoteSummaries.SNIPPET_LENGTH + 10);
+
+        String preview = NoteContentConverter.preview(text);
+
+        assertEquals(NoteSummaries.SNIPPET_LENGTH, preview.codePointCount(0, preview.length()));
+        assertTrue(text.startsWith(preview));
+    }
+}
@@ -0,0 +1,272 @@
+package com.speer.assignment.repository;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.speer.assignment.entity.Note;
+import com.speer.assignment.entity.RefreshToken;
+import com.speer.assignment.entity.User;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs each repository query against {@link EmbeddedNotesMongo} with the indexes from
+ * {@link MongoIndexManager}, captures the commands it sends, and explains every one of them. A plan with a {@code COLLSCAN}
+ * stage, or one that examines more than {@value #MAX_EXAMINED_PER_RETURNED} documents per document
+ * returned, fails the test. {@code streamAllBy} and {@code streamAccessBy} are full loads at
+ * startup and are deliberately not covered.
+ */
+public class QueryPlanTest {
+    private static final String DATABASE = "query_plans";
+    private static final int USERS = 20;
+    private static final int NOTES_PER_USER = 100;
+    private static final double MAX_EXAMINED_PER_RETURNED = 2.0;
+    private static final Set<String> EXPLAINABLE = new HashSet<>(Arrays.asList(
+            "find", "aggregate", "count", "distinct", "findAndModify", "update", "delete"));
+    private static final Set<String> SESSION_FIELDS = new HashSet<>(Arrays.asList(
+            "$db", "lsid", "$clusterTime", "$readPreference", "txnNumber"));
+
+    private static final List<BsonDocument> commands = new CopyOnWriteArrayList<>();
+
+    private static EmbeddedNotesMongo mongo;
+    private static MongoTemplate mongoTemplate;
+    private static MongoIndexManager indexManager;
+    private static NoteRepository noteRepository;
+    private static UserRepository userRepository;
+    private static RefreshTokenRepository refreshTokenRepository;
+    private static List<String> user0Notes;
+
+    @BeforeClass
+    public static void startMongo() throws Exception {
+        mongo = EmbeddedNotesMongo.start(DATABASE, settings -> settings.addCommandListener(new CommandListener() {
+            @Override
+            public void commandStarted(CommandStartedEvent event) {
+                if (DATABASE.equals(event.getDatabaseName()) && EXPLAINABLE.contains(event.getCommandName())) {
+                    commands.add(event.getCommand().clone());
+                }
+            }
+        }));
+        mongoTemplate = mongo.mongoTemplate();
+        indexManager = mongo.indexManager();
+        noteRepository = mongo.noteRepository();
+        userRepository = mongo.repository(UserRepository.class);
+        refreshTokenRepository = mongo.repository(RefreshTokenRepository.class);
+        seed();
+    }
+
+    @AfterClass
+    public static void stopMongo() {
+        mongo.close();
+    }
+
+    @Before
+    public void clearCommands() {
+        commands.clear();
+    }
+
+    @Test
+    public void ensureIndexes_CreatesEveryRequiredIndex() {
+        assertEquals(Collections.emptyList(), indexManager.validate());
+    }
+
+    @Test
+    public void streamVisibleTo_FirstAndLaterPages() {
+        drain(noteRepository.streamVisibleTo("user0", null, 21));
+        drain(noteRepository.streamVisibleTo("user0", user0Notes.get(NOTES_PER_USER / 2), 21));
+        assertPlans(MAX_EXAMINED_PER_RETURNED);
+    }
+
+    @Test
+    public void streamSharedWith_FirstAndLaterPages() {
+        drain(noteRepository.streamSharedWith("user1", null, 21));
+        drain(noteRepository.streamSharedWith("user1", user0Notes.get(NOTES_PER_USER / 2), 21));
+        assertPlans(MAX_EXAMINED_PER_RETURNED);
+    }
+
+    @Test
+    public void streamOwnedBy() {
+        drain(noteRepository.streamOwnedBy("user0", 1000));
+        assertPlans(MAX_EXAMINED_PER_RETURNED);
+    }
+
+    @Test
+    public void searchVisibleTo() {
+        noteRepository.searchVisibleTo("user0", "topic3", PageRequest.of(0, 20));
+        // The $text stage examines every match before the visibility filter (see searchVisibleTo),
+        // so only the plan shape is checked.
+        assertPlans(Double.POSITIVE_INFINITY);
+    }
+
+    @Test
+    public void findSummaries() {
+        noteRepository.findSummaries(user0Notes.subList(0, 20), "topic");
+        assertPlans(MAX_EXAMINED_PER_RETURNED);
+    }
+
+    @Test
+    public void singleNoteReadsAndWrites() {
+        String id = user0Notes.get(1);
+        noteRepository.findById(id);
+        noteRepository.findVersion(id);
+        noteRepository.existsByIdAndOwner(id, "user0");
+        noteRepository.updateFields(id, "user0", null, "Renamed", "Rewritten");
+        noteRepository.shareWith(id, "user0", Collections.singletonList("user5"));
+        noteRepository.unshareWith(id, "user0", "user5");
+        noteRepository.shareAllWith(user0Notes.subList(2, 5), "user0", Collections.singletonList("user6"));
+        noteRepository.deleteWithBody(user0Notes.get(NOTES_PER_USER - 1));
+        assertPlans(MAX_EXAMINED_PER_RETURNED);
+    }
+
+    @Test
+    public void userAndRefreshTokenLookups() {
+        userRepository.findByUsername("user3");
+        userRepository.findByUsernameIn(Arrays.asList("user3", "user4"));
+        refreshTokenRepository.deleteByTokenHash("hash-3-0");
+        refreshTokenRepository.deleteByUserId("user-4");
+        assertPlans(MAX_EXAMINED_PER_RETURNED);
+    }
+
+    private static void seed() {
+        List<Note> notes = new ArrayList<>();
+        List<User> users = new ArrayList<>();
+        List<RefreshToken> tokens = new ArrayList<>();
+        for (int u = 0; u < USERS; u++) {
+            for (int i = 0; i < NOTES_PER_USER; i++) {
+                Note note = new Note();
+                note.setOwner("user" + u);
+                note.setTitle("note " + i);
+                note.setContent("note " + i + " of user " + u + " about topic" + (i % 10));
+                if (i % 4 == 0) {
+                    note.setSharedWith(Collections.singletonList("user" + ((u + 1) % USERS)));
+                }
+                note.setVersion(0L);
+                notes.add(note);
+            }
+
+            User user = new User();
+            user.setId("user-" + u);
+            user.setUsername("user" + u);
+            user.setPassword("hash");
+            users.add(user);
+            for (int t = 0; t < 5; t++) {
+                RefreshToken token = new RefreshToken();
+                token.setTokenHash("hash-" + u + "-" + t);
+                token.setUserId(user.getId());
+                token.setUsername(user.getUsername());
+                token.setExpiresAt(new Date(System.currentTimeMillis() + 3_600_000L));
+                tokens.add(token);
+            }
+        }
+        // Interleave owners in _id order, so a plan that walks _id has to skip other users' notes.
+        Collections.shuffle(notes, new Random(42));
+        notes.forEach(note -> note.setId(new ObjectId().toHexString()));
+        noteRepository.insertUnordered(notes);
+        mongoTemplate.insertAll(users);
+        mongoTemplate.insertAll(tokens);
+
+        user0Notes = notes.stream()
+                .filter(note -> "user0".equals(note.getOwner()))
+                .map(Note::getId)
+                .collect(Collectors.toList());
+    }
+
+    private static void drain(Stream<?> stream) {
+        try (stream) {
+            stream.forEach(row -> { });
+        }
+    }
+
+    private void assertPlans(double maxExaminedPerReturned) {
+        assertFalse("no commands were captured", commands.isEmpty());
+        for (BsonDocument command : commands) {
+            for (BsonDocument statement : statements(command)) {
+                Document explain = mongoTemplate.getDb().runCommand(new Document("explain", statement)
+                        .append("verbosity", "executionStats"));
+                List<String> stages = new ArrayList<>();
+                collectStages(explain, false, stages);
+                assertFalse("COLLSCAN in " + statement.toJson() + "\n" + explain.toJson(), stages.contains("COLLSCAN"));
+
+                List<Document> stats = new ArrayList<>();
+                collectExecutionStats(explain, stats);
+                for (Document executionStats : stats) {
+                    long examined = ((Number) executionStats.get("totalDocsExamined")).longValue();
+                    long returned = ((Number) executionStats.get("nReturned")).longValue();
+                    assertTrue("examined " + examined + " documents for " + returned + " in " + statement.toJson(),
+                            examined <= maxExaminedPerReturned * Math.max(returned, 1));
+                }
+            }
+        }
+    }
+
+    /** The command without session fields, split so each write statement is explained on its own. */
+    private static List<BsonDocument> statements(BsonDocument command) {
+        BsonDocument base = new BsonDocument();
+        for (String key : command.keySet()) {
+            if (!SESSION_FIELDS.contains(key)) {
+                base.put(key, command.get(key));
+            }
+        }
+        for (String writes : Arrays.asList("updates", "deletes")) {
+            if (base.containsKey(writes)) {
+                List<BsonDocument> statements = new ArrayList<>();
+                for (BsonValue write : base.getArray(writes)) {
+                    statements.add(base.clone().append(writes, new BsonArray(Collections.singletonList(write))));
+                }
+                return statements;
+            }
+        }
+        return Collections.singletonList(base);
+    }
+
+    private static void collectStages(Object value, boolean inPlan, List<String> stages) {
+        if (value instanceof Document) {
+            Document document = (Document) value;
+            for (String key : document.keySet()) {
+                Object child = document.get(key);
+                if (inPlan && "stage".equals(key) && child instanceof String) {
+                    stages.add((String) child);
+                }
+                collectStages(child, inPlan || "winningPlan".equals(key), stages);
+            }
+        } else if (value instanceof List) {
+            for (Object child : (List<?>) value) {
+                collectStages(child, inPlan, stages);
+            }
+        }
+    }
+
+    private static void collectExecutionStats(Object value, List<Document> stats) {
+        if (value instanceof Document) {
+            Document document = (Document) value;
+            Object executionStats = document.get("executionStats");
+            if (executionStats instanceof Document && ((Document) executionStats).containsKey("totalDocsExamined")) {
+                stats.add((Document) executionStats);
+            }
+            document.values().forEach(child -> collectExecutionStats(child, stats));
+        } else if (value instanceof List) {
+            ((List<?>) value).forEach(child -> collectExecutionStats(child, stats));
+        }
+    }
+}
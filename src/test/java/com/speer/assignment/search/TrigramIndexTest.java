@@ -0,0 +1,95 @@
+package com.speer.assignment.search;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TrigramIndexTest {
+
+    private TrigramIndex index;
+
+    @Before
+    public void setup() {
+        index = new TrigramIndex();
+        index.put("1", "Groceries", "Buy milk and eggs");
+        index.put("2", "Deploy", "kubectl rollout restart deployment/api");
+        index.put("3", "Recipe", "Whisk the eggs with milk");
+    }
+
+    @Test
+    public void search_PartialWord_ReturnsNewestFirst() {
+        List<String> ids = index.search("EGG", id -> true, 0, 10);
+
+        assertEquals(Arrays.asList("3", "1"), ids);
+    }
+
+    @Test
+    public void search_CodeFragment_MatchesSubstring() {
+        List<String> ids = index.search("out restart deploy", id -> true, 0, 10);
+
+        assertEquals(Collections.singletonList("2"), ids);
+    }
+
+    @Test
+    public void search_TrigramsPresentButNotAdjacent_ReturnsNothing() {
+        List<String> ids = index.search("milk eggs", id -> true, 0, 10);
+
+        assertTrue(ids.isEmpty());
+    }
+
+    @Test
+    public void search_MatchAcrossFields_ReturnsNothing() {
+        List<String> ids = index.search("groceriesbuy", id -> true, 0, 10);
+
+        assertTrue(ids.isEmpty());
+    }
+
+    @Test
+    public void search_ShortQuery_ReturnsNothing() {
+        List<String> ids = index.search("ub", id -> true, 0, 10);
+
+        assertTrue(ids.isEmpty());
+    }
+
+    @Test
+    public void search_AppliesFilterBeforePaging() {
+        List<String> ids = index.search("milk", id -> !id.equals("3"), 0, 10);
+        List<String> secondPage = index.search("eggs", id -> true, 1, 1);
+
+        assertEquals(Collections.singletonList("1"), ids);
+        assertEquals(Collections.singletonList("1"), secondPage);
+    }
+
+    @Test
+    public void put_ExistingId_ReplacesPreviousText() {
+        index.put("1", "Groceries", "Buy bread");
+
+        assertEquals(Collections.singletonList("3"), index.search("milk", id -> true, 0, 10));
+        assertEquals(Collections.singletonList("1"), index.search("bread", id -> true, 0, 10));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    public void remove_ExistingId_DropsDocument() {
+        index.remove("3");
+
+        assertEquals(Collections.singletonList("1"), index.search("eggs", id -> true, 0, 10));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    public void put_ManyUpdates_CompactsAndKeepsResults() {
+        for (int i = 0; i < 20000; i++) {
+            index.put("churn", "Draft", "revision " + i);
+        }
+
+        assertEquals(Collections.singletonList("churn"), index.search("revision 19999", id -> true, 0, 10));
+        assertTrue(index.search("revision 1999 ", id -> true, 0, 10).isEmpty());
+        assertEquals(4, index.size());
+    }
+}
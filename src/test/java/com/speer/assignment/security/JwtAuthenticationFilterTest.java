@@ -0,0 +1,88 @@
+package com.speer.assignment.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class JwtAuthenticationFilterTest {
+
+    private JwtTokenProvider tokenProvider;
+    private JwtAuthenticationFilter filter;
+    private SimpleMeterRegistry meterRegistry;
+
+    @Before
+    public void setup() {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", "test-secret-that-is-long-enough-for-hs512-signatures-0123456789abcdef");
+        ReflectionTestUtils.setField(provider, "jwtExpirationInMs", 60000);
+        provider.init();
+        tokenProvider = spy(provider);
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new JwtAuthenticationFilter(tokenProvider, 100, meterRegistry);
+    }
+
+    @After
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void doFilter_ValidToken_AuthenticatesAndParsesOnce() throws Exception {
+        String token = tokenProvider.generateToken(authenticationFor("64a0c0ffee0000000000000a", "alice"));
+
+        Authentication first = filter(token);
+        Authentication second = filter(token);
+
+        assertNotNull(first);
+        assertEquals("alice", first.getName());
+        assertEquals("64a0c0ffee0000000000000a", ((UserPrincipal) first.getPrincipal()).getId());
+        assertSame(first, second);
+        verify(tokenProvider, times(1)).parseToken(token);
+        assertEquals(1.0, meterRegistry.counter("auth.jwt.validations", "result", "valid").count(), 0.0);
+        assertEquals(1.0, meterRegistry.counter("auth.jwt.validations", "result", "cached").count(), 0.0);
+    }
+
+    @Test
+    public void doFilter_TamperedToken_LeavesRequestUnauthenticated() throws Exception {
+        String token = tokenProvider.generateToken(authenticationFor("64a0c0ffee0000000000000a", "alice"));
+
+        assertNull(filter(token.substring(0, token.length() - 2) + "xx"));
+    }
+
+    @Test
+    public void doFilter_NoHeader_SkipsParsing() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(tokenProvider, never()).parseToken(anyString());
+    }
+
+    private Authentication filter(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private Authentication authenticationFor(String id, String username) {
+        UserPrincipal principal = new UserPrincipal(id, username, null, Collections.emptyList());
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+}
@@ -0,0 +1,140 @@
+package com.speer.assignment.security;
+
+import com.speer.assignment.entity.Note;
+import com.speer.assignment.repository.NoteRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class NoteAccessIndexTest {
+    @Mock
+    private NoteRepository noteRepository;
+
+    private NoteAccessIndex index;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        when(noteRepository.streamAccessBy()).thenReturn(Stream.of(
+                note("1", "alice", "bob"),
+                note("2", "bob")));
+        index = new NoteAccessIndex(noteRepository);
+        ReflectionTestUtils.setField(index, "ttlMillis", 60_000L);
+        index.rebuild();
+    }
+
+    @Test
+    public void rebuild_LoadsOwnersAndReaders() {
+        assertEquals(2, index.size());
+        assertTrue(index.canRead("1", "alice"));
+        assertTrue(index.canRead("1", "bob"));
+        assertTrue(index.isOwner("1", "alice"));
+        assertFalse(index.isOwner("1", "bob"));
+        assertFalse(index.canRead("2", "alice"));
+    }
+
+    @Test
+    public void unknownNotesAndUsers_AreDenied() {
+        assertFalse(index.canRead("missing", "alice"));
+        assertFalse(index.canRead("1", "mallory"));
+        assertFalse(index.isOwner("1", "mallory"));
+    }
+
+    @Test
+    public void shared_AddsReaders_OnlyForOwner() {
+        index.shared("2", "alice", Collections.singletonList("carol"));
+        assertFalse(index.canRead("2", "carol"));
+
+        index.shared("2", "bob", Arrays.asList("alice", "carol"));
+        assertTrue(index.canRead("2", "alice"));
+        assertTrue(index.canRead("2", "carol"));
+        assertFalse(index.isOwner("2", "carol"));
+    }
+
+    @Test
+    public void unshared_RemovesReader_OnlyForOwner() {
+        index.unshared("1", "bob", "bob");
+        assertTrue(index.canRead("1", "bob"));
+
+        index.unshared("1", "alice", "bob");
+        assertFalse(index.canRead("1", "bob"));
+        assertTrue(index.canRead("1", "alice"));
+    }
+
+    @Test
+    public void putAndRemove_TrackCreatesAndDeletes() {
+        index.put(note("3", "carol"));
+        assertTrue(index.isOwner("3", "carol"));
+
+        index.remove("3");
+        assertFalse(index.canRead("3", "carol"));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    public void ownerlessNote_IsReadableOnlyByReaders() {
+        index.put(note("4", null, "alice"));
+
+        assertTrue(index.canRead("4", "alice"));
+        assertFalse(index.isOwner("4", "alice"));
+        assertFalse(index.isOwner("4", null));
+    }
+
+    @Test
+    public void miss_LoadsAccessListOnce() {
+        String id = "64a0c0ffee0000000000000a";
+        when(noteRepository.findAccessById(id)).thenReturn(Optional.of(note(id, "carol", "alice")));
+
+        assertTrue(index.canRead(id, "alice"));
+        assertTrue(index.isOwner(id, "carol"));
+        assertTrue(index.isLoaded(id));
+        verify(noteRepository, times(1)).findAccessById(id);
+    }
+
+    @Test
+    public void staleEntry_IsReadAgainFromMongo() {
+        String id = "64a0c0ffee0000000000000b";
+        index.put(note(id, "carol"));
+        ReflectionTestUtils.setField(index, "ttlMillis", 0L);
+        when(noteRepository.findAccessById(id)).thenReturn(Optional.of(note(id, "carol", "alice")));
+
+        assertFalse(index.isLoaded(id));
+        assertTrue(index.canRead(id, "alice"));
+        verify(noteRepository, times(1)).findAccessById(id);
+    }
+
+    @Test
+    public void staleEntry_DeletedThroughAnotherInstance_IsDropped() {
+        String id = "64a0c0ffee0000000000000c";
+        index.put(note(id, "carol"));
+        ReflectionTestUtils.setField(index, "ttlMillis", 0L);
+        when(noteRepository.findAccessById(id)).thenReturn(Optional.empty());
+
+        assertFalse(index.canRead(id, "carol"));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    public void miss_OnMalformedId_SkipsLookup() {
+        assertFalse(index.canRead("not-an-object-id", "alice"));
+        verify(noteRepository, never()).findAccessById(anyString());
+    }
+
+    private static Note note(String id, String owner, String... sharedWith) {
+        Note note = new Note();
+        note.setId(id);
+        note.setOwner(owner);
+        note.setSharedWith(Arrays.asList(sharedWith));
+        return note;
+    }
+}
@@ -0,0 +1,74 @@
+package com.speer.assignment.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class PasswordHasherTest {
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PasswordHasher passwordHasher;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        passwordHasher = new PasswordHasher(passwordEncoder, meterRegistry, 1, 1);
+    }
+
+    @After
+    public void tearDown() {
+        passwordHasher.shutdown();
+    }
+
+    @Test
+    public void submit_FullQueue_RejectsFastAndCounts() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> running = passwordHasher.submit(() -> {
+            started.countDown();
+            await(release);
+            return "running";
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = passwordHasher.submit(() -> "queued");
+
+        assertEquals(1.0, meterRegistry.get("auth.hashing.queue.depth").gauge().value(), 0.0);
+        assertEquals(1.0, meterRegistry.get("auth.hashing.active").gauge().value(), 0.0);
+
+        long start = System.nanoTime();
+        try {
+            passwordHasher.submit(() -> "rejected");
+            fail("Expected the full queue to reject the task");
+        } catch (RejectedExecutionException expected) {
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        }
+        assertEquals(1.0, meterRegistry.get("auth.hashing.rejected").counter().count(), 0.0);
+
+        release.countDown();
+        assertEquals("running", running.get(5, TimeUnit.SECONDS));
+        assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+        assertEquals(0.0, meterRegistry.get("auth.hashing.queue.depth").gauge().value(), 0.0);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.speer.assignment.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class RateLimitFilterTest {
+
+    private RateLimitFilter filter;
+    private SimpleMeterRegistry meterRegistry;
+
+    @Before
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new RateLimitFilter(Collections.singletonList(
+                new RateLimitPolicy.Rule("notes", "/api/notes", null, true, 0.5, 1, 100)), meterRegistry);
+    }
+
+    @After
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void doFilter_EmptyBucket_Returns429WithRetryAfter() throws Exception {
+        assertEquals(200, filter("/api/notes", "10.0.0.1").getStatus());
+
+        MockHttpServletResponse rejected = filter("/api/notes", "10.0.0.1");
+
+        assertEquals(429, rejected.getStatus());
+        assertEquals("2", rejected.getHeader("Retry-After"));
+        assertEquals(1.0, meterRegistry.counter("http.server.requests.throttled", "rule", "notes").count(), 0.0);
+    }
+
+    @Test
+    public void doFilter_AuthenticatedRequests_AreLimitedPerUser() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("alice", null, Collections.emptyList()));
+        assertEquals(200, filter("/api/notes", "10.0.0.1").getStatus());
+        assertEquals(429, filter("/api/notes", "10.0.0.2").getStatus());
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("bob", null, Collections.emptyList()));
+        assertEquals(200, filter("/api/notes", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    public void doFilter_UnmatchedPath_IsNotLimited() throws Exception {
+        assertEquals(200, filter("/actuator/health", "10.0.0.1").getStatus());
+        assertEquals(200, filter("/actuator/health", "10.0.0.1").getStatus());
+    }
+
+    private MockHttpServletResponse filter(String path, String remoteAddr) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setRemoteAddr(remoteAddr);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
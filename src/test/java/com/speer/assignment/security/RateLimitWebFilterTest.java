@@ -0,0 +1,73 @@
+package com.speer.assignment.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class RateLimitWebFilterTest {
+
+    private RateLimitWebFilter filter;
+
+    @Before
+    public void setup() {
+        filter = new RateLimitWebFilter(Collections.singletonList(
+                new RateLimitPolicy.Rule("userUpdates", "/api/users/", Collections.singleton("PUT"), true, 0.5, 1, 100)),
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    public void filter_AnonymousRequests_AreLimitedPerAddress() {
+        assertNull(filter(put("/api/users/1", "10.0.0.1"), null));
+
+        MockServerWebExchange rejected = put("/api/users/1", "10.0.0.1");
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, filter(rejected, null));
+        assertEquals("2", rejected.getResponse().getHeaders().getFirst("Retry-After"));
+
+        assertNull(filter(put("/api/users/1", "10.0.0.2"), null));
+    }
+
+    @Test
+    public void filter_AuthenticatedRequests_AreLimitedPerUserId() {
+        Authentication alice = new UsernamePasswordAuthenticationToken(
+                new UserPrincipal("u1", "alice", null, Collections.emptyList()), null, Collections.emptyList());
+        Authentication renamed = new UsernamePasswordAuthenticationToken(
+                new UserPrincipal("u1", "alice2", null, Collections.emptyList()), null, Collections.emptyList());
+
+        assertNull(filter(put("/api/users/u1", "10.0.0.1"), alice));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, filter(put("/api/users/u1", "10.0.0.2"), renamed));
+    }
+
+    @Test
+    public void filter_OtherMethods_AreNotLimited() {
+        MockServerWebExchange get = MockServerWebExchange.from(MockServerHttpRequest.get("/api/users/1")
+                .remoteAddress(new InetSocketAddress("10.0.0.1", 0)));
+        assertNull(filter(get, null));
+        assertNull(filter(put("/api/users/1", "10.0.0.1"), null));
+    }
+
+    private HttpStatus filter(MockServerWebExchange exchange, Authentication authentication) {
+        Mono<Void> filtered = filter.filter(exchange, chained -> Mono.empty());
+        if (authentication != null) {
+            filtered = filtered.contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
+        }
+        filtered.block();
+        return exchange.getResponse().getStatusCode();
+    }
+
+    private static MockServerWebExchange put(String path, String remoteAddress) {
+        return MockServerWebExchange.from(MockServerHttpRequest.put(path)
+                .remoteAddress(new InetSocketAddress(remoteAddress, 0)));
+    }
+}
@@ -0,0 +1,72 @@
+package com.speer.assignment.security;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class RateLimiterTest {
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+    @Test
+    public void tryAcquire_AllowsBurstThenRejectsWithWait() {
+        RateLimiter limiter = new RateLimiter(1, 3, 100, clock::get);
+
+        assertEquals(0, limiter.tryAcquire("alice"));
+        assertEquals(0, limiter.tryAcquire("alice"));
+        assertEquals(0, limiter.tryAcquire("alice"));
+
+        assertEquals(TimeUnit.SECONDS.toNanos(1), limiter.tryAcquire("alice"));
+    }
+
+    @Test
+    public void tryAcquire_RefillsAtConfiguredRate() {
+        RateLimiter limiter = new RateLimiter(2, 1, 100, clock::get);
+
+        assertEquals(0, limiter.tryAcquire("alice"));
+        assertTrue(limiter.tryAcquire("alice") > 0);
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(0, limiter.tryAcquire("alice"));
+    }
+
+    @Test
+    public void tryAcquire_KeysAreIndependent() {
+        RateLimiter limiter = new RateLimiter(1, 1, 100, clock::get);
+
+        assertEquals(0, limiter.tryAcquire("alice"));
+        assertTrue(limiter.tryAcquire("alice") > 0);
+        assertEquals(0, limiter.tryAcquire("bob"));
+    }
+
+    @Test
+    public void tryAcquire_RefusesNewKeysAtCapacity_UntilSwept() {
+        RateLimiter limiter = new RateLimiter(10, 1, 2, clock::get);
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("b"));
+
+        assertTrue(limiter.tryAcquire("c") > 0);
+        assertEquals(2, limiter.size());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertEquals(0, limiter.tryAcquire("a"));
+        limiter.sweep();
+
+        assertEquals(1, limiter.size());
+        assertEquals(0, limiter.tryAcquire("c"));
+        assertEquals(2, limiter.size());
+    }
+
+    @Test
+    public void sweep_KeepsKeysWithPendingArrivals() {
+        RateLimiter limiter = new RateLimiter(1, 1, 100, clock::get);
+        limiter.tryAcquire("alice");
+
+        limiter.sweep();
+
+        assertEquals(1, limiter.size());
+        assertTrue(limiter.tryAcquire("alice") > 0);
+    }
+}
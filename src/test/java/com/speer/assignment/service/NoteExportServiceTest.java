@@ -0,0 +1,97 @@
+package com.speer.assignment.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.gridfs.model.GridFSFile;
+import com.speer.assignment.dto.NoteDto;
+import com.speer.assignment.entity.Note;
+import com.speer.assignment.repository.NoteBodyStore;
+import com.speer.assignment.repository.NoteRepository;
+import org.bson.BsonObjectId;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.gridfs.GridFsResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class NoteExportServiceTest {
+    @Mock
+    private NoteRepository noteRepository;
+
+    @Mock
+    private NoteBodyStore noteBodyStore;
+
+    private NoteExportService noteExportService;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        noteExportService = new NoteExportService(noteRepository, noteBodyStore, new ObjectMapper());
+        ReflectionTestUtils.setField(noteExportService, "batchSize", 2);
+    }
+
+    @Test
+    public void exportNotes_WritesOneJsonObjectPerLine() throws Exception {
+        when(noteRepository.streamOwnedBy("alice", 2)).thenReturn(Stream.of(note("1", "Note 1"), note("2", "Note 2")));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long written = noteExportService.exportNotes("alice", output);
+
+        assertEquals(2, written);
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":\"1\""));
+        assertTrue(lines[1].contains("\"title\":\"Note 2\""));
+    }
+
+    @Test
+    public void exportNotes_WritesNothingWhenUserHasNoNotes() throws Exception {
+        when(noteRepository.streamOwnedBy("alice", 2)).thenReturn(Stream.empty());
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        assertEquals(0, noteExportService.exportNotes("alice", output));
+        assertEquals(0, output.size());
+    }
+
+    @Test
+    public void exportNotes_StreamsSpilledBodyFromStore() throws Exception {
+        ObjectId contentRef = new ObjectId();
+        Note spilled = note("1", "Big note");
+        spilled.setContent(null);
+        spilled.setContentRef(contentRef);
+        byte[] body = "line \"one\"\nline two".getBytes(StandardCharsets.UTF_8);
+        GridFSFile file = new GridFSFile(new BsonObjectId(contentRef), "1", body.length, 255 * 1024, new Date(),
+                new Document("noteId", "1"));
+
+        when(noteRepository.streamOwnedBy("alice", 2)).thenReturn(Stream.of(spilled));
+        when(noteBodyStore.open(contentRef)).thenReturn(new GridFsResource(file, new ByteArrayInputStream(body)));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        noteExportService.exportNotes("alice", output);
+
+        NoteDto exported = new ObjectMapper().readValue(output.toString(StandardCharsets.UTF_8).trim(), NoteDto.class);
+        assertEquals("line \"one\"\nline two", exported.getContent());
+        assertEquals("Big note", exported.getTitle());
+    }
+
+    private static Note note(String id, String title) {
+        Note note = new Note();
+        note.setId(id);
+        note.setTitle(title);
+        note.setContent("Content");
+        note.setOwner("alice");
+        return note;
+    }
+}
@@ -0,0 +1,137 @@
+package com.speer.assignment.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import com.speer.assignment.dto.ImportResult;
+import com.speer.assignment.entity.Note;
+import com.speer.assignment.repository.NoteRepository;
+import com.speer.assignment.search.NoteSearchEngine;
+import com.speer.assignment.security.NoteAccessIndex;
+import org.bson.BsonDocument;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+public class NoteImportServiceTest {
+    @Mock
+    private NoteRepository noteRepository;
+
+    @Mock
+    private NoteAccessIndex noteAccessIndex;
+
+    @Mock
+    private NoteSearchEngine noteSearchEngine;
+
+    private NoteImportService noteImportService;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        noteImportService = new NoteImportService(noteRepository, noteAccessIndex, noteSearchEngine, new ObjectMapper());
+        ReflectionTestUtils.setField(noteImportService, "batchSize", 2);
+        ReflectionTestUtils.setField(noteImportService, "batchBytes", 1024L);
+        ReflectionTestUtils.setField(noteImportService, "maxLineBytes", 64);
+    }
+
+    @Test
+    public void importNotes_FlushesWhenBatchBytesAreReached() throws Exception {
+        ReflectionTestUtils.setField(noteImportService, "batchSize", 100);
+        ReflectionTestUtils.setField(noteImportService, "batchBytes", 50L);
+        List<Integer> batchSizes = new ArrayList<>();
+        when(noteRepository.insertUnordered(anyList())).thenAnswer(invocation -> {
+            batchSizes.add(invocation.<List<Note>>getArgument(0).size());
+            return Collections.emptyList();
+        });
+
+        // 30 bytes per line, so the second line of each batch crosses the 50-byte budget.
+        String line = "{\"title\":\"Note\",\"content\":\"x\"}\n";
+        ImportResult result = noteImportService.importNotes(stream(line.repeat(5)), "alice");
+
+        assertEquals(5, result.getImported());
+        assertEquals(List.of(2, 2, 1), batchSizes);
+    }
+
+    @Test
+    public void importNotes_WritesInBatchesAndReportsInvalidLines() throws Exception {
+        List<List<Note>> batches = new ArrayList<>();
+        when(noteRepository.insertUnordered(anyList())).thenAnswer(invocation -> {
+            batches.add(new ArrayList<>(invocation.getArgument(0)));
+            return Collections.emptyList();
+        });
+
+        String body = "{\"title\":\"Note 1\",\"content\":\"Content 1\"}\n"
+                + "not json\n"
+                + "\n"
+                + "{\"title\":\"Note 2\"}\n"
+                + "{}\n"
+                + "{\"content\":\"Content 3\"}\n";
+
+        ImportResult result = noteImportService.importNotes(stream(body), "alice");
+
+        assertEquals(3, result.getImported());
+        assertEquals(2, result.getFailed());
+        assertEquals(2, result.getErrors().get(0).getLine());
+        assertEquals(5, result.getErrors().get(1).getLine());
+
+        assertEquals(2, batches.size());
+        assertEquals(2, batches.get(0).size());
+        assertEquals(1, batches.get(1).size());
+        Note first = batches.get(0).get(0);
+        assertEquals("alice", first.getOwner());
+        assertNotNull(first.getId());
+        assertEquals(Long.valueOf(0), first.getVersion());
+        verify(noteSearchEngine, times(3)).index(any(Note.class));
+        verify(noteAccessIndex, times(3)).put(any(Note.class));
+    }
+
+    @Test
+    public void importNotes_ReportsRejectedInsertsByLine() throws Exception {
+        BulkWriteError duplicate = new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 1);
+        when(noteRepository.insertUnordered(anyList())).thenReturn(Collections.singletonList(duplicate));
+
+        String body = "{\"title\":\"Note 1\"}\n"
+                + "{\"title\":\"Note 2\"}\n";
+
+        ImportResult result = noteImportService.importNotes(stream(body), "alice");
+
+        assertEquals(1, result.getImported());
+        assertEquals(1, result.getFailed());
+        assertEquals(2, result.getErrors().get(0).getLine());
+
+        ArgumentCaptor<Note> indexed = ArgumentCaptor.forClass(Note.class);
+        verify(noteSearchEngine, times(1)).index(indexed.capture());
+        assertEquals("Note 1", indexed.getValue().getTitle());
+    }
+
+    @Test
+    public void importNotes_ReportsOversizedLinesAndContinues() throws Exception {
+        when(noteRepository.insertUnordered(anyList())).thenReturn(Collections.emptyList());
+
+        String body = "{\"title\":\"" + String.join("", Collections.nCopies(100, "x")) + "\"}\n"
+                + "{\"title\":\"Note 2\"}\r\n";
+
+        ImportResult result = noteImportService.importNotes(stream(body), "alice");
+
+        assertEquals(1, result.getImported());
+        assertEquals(1, result.getFailed());
+        assertEquals(1, result.getErrors().get(0).getLine());
+        assertEquals("Line exceeds 64 bytes", result.getErrors().get(0).getMessage());
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,77 @@
+package com.speer.assignment.service;
+
+import com.speer.assignment.entity.RefreshToken;
+import com.speer.assignment.repository.RefreshTokenRepository;
+import com.speer.assignment.security.UserPrincipal;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class RefreshTokenServiceTest {
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @InjectMocks
+    private RefreshTokenService refreshTokenService;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(refreshTokenService, "refreshTokenExpirationInMs", 60000L);
+    }
+
+    @Test
+    public void issue_StoresHashAndNotToken() {
+        String token = refreshTokenService.issue(new UserPrincipal("1", "john.doe", null, Collections.emptyList()));
+
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository, times(1)).insert(captor.capture());
+        RefreshToken stored = captor.getValue();
+
+        assertNotNull(token);
+        assertNotEquals(token, stored.getTokenHash());
+        assertEquals("1", stored.getUserId());
+        assertEquals("john.doe", stored.getUsername());
+        assertTrue(stored.getExpiresAt().after(new Date()));
+    }
+
+    @Test
+    public void consume_IssuedToken_DeletesByHash() {
+        String token = refreshTokenService.issue(new UserPrincipal("1", "john.doe", null, Collections.emptyList()));
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).insert(captor.capture());
+        RefreshToken stored = captor.getValue();
+
+        when(refreshTokenRepository.deleteByTokenHash(stored.getTokenHash())).thenReturn(Optional.of(stored));
+
+        assertEquals(Optional.of(stored), refreshTokenService.consume(token));
+    }
+
+    @Test
+    public void consume_ExpiredToken_ReturnsEmpty() {
+        RefreshToken expired = new RefreshToken();
+        expired.setExpiresAt(new Date(System.currentTimeMillis() - 1000));
+
+        when(refreshTokenRepository.deleteByTokenHash(anyString())).thenReturn(Optional.of(expired));
+
+        assertFalse(refreshTokenService.consume("token").isPresent());
+    }
+
+    @Test
+    public void consume_MissingToken_SkipsRepository() {
+        assertFalse(refreshTokenService.consume(null).isPresent());
+
+        verify(refreshTokenRepository, never()).deleteByTokenHash(anyString());
+    }
+}
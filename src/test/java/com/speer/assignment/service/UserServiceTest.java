@@ -3,14 +3,23 @@ package com.speer.assignment.service;
 import com.speer.assignment.dto.UserDto;
 import com.speer.assignment.entity.User;
 import com.speer.assignment.repository.UserRepository;
+import com.speer.assignment.security.PasswordHasher;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.security.crypto.password.PasswordEncoder;
-
+import org.mockito.Spy;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
@@ -20,7 +29,13 @@ public class UserServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Spy
+    private SyncTaskExecutor taskExecutor = new SyncTaskExecutor();
 
     @InjectMocks
     private UserService userService;
@@ -41,30 +56,37 @@ public class UserServiceTest {
         savedUser.setUsername(userDto.getUsername());
         savedUser.setPassword("encodedPassword");
 
-        when(userRepository.findByUsername(userDto.getUsername())).thenReturn(Optional.empty());
-        when(userRepository.save(any(User.class))).thenReturn(savedUser);
-        when(passwordEncoder.encode(userDto.getPassword())).thenReturn("encodedPassword");
+        when(userRepository.insert(any(User.class))).thenReturn(savedUser);
+        when(passwordHasher.encode(userDto.getPassword())).thenReturn(CompletableFuture.completedFuture("encodedPassword"));
 
-        User registeredUser = userService.registerUser(userDto);
+        User registeredUser = userService.registerUser(userDto).join();
 
         assertNotNull(registeredUser);
         assertEquals(savedUser.getId(), registeredUser.getId());
         assertEquals(savedUser.getUsername(), registeredUser.getUsername());
 
-        verify(userRepository, times(1)).findByUsername(userDto.getUsername());
-        verify(userRepository, times(1)).save(any(User.class));
-        verify(passwordEncoder, times(1)).encode(userDto.getPassword());
+        verify(userRepository, never()).findByUsername(userDto.getUsername());
+        verify(userRepository, times(1)).insert(any(User.class));
+        verify(passwordHasher, times(1)).encode(userDto.getPassword());
+        verify(taskExecutor, times(1)).execute(any(Runnable.class));
     }
 
-    @Test(expected = IllegalArgumentException.class)
-    public void registerUser_DuplicateUsername_ThrowsIllegalArgumentException() {
+    @Test
+    public void registerUser_DuplicateUsername_FailsWithConflict() {
         UserDto userDto = new UserDto();
         userDto.setUsername("john.doe");
         userDto.setPassword("password");
 
-        when(userRepository.findByUsername(userDto.getUsername())).thenReturn(Optional.of(new User()));
+        when(passwordHasher.encode(userDto.getPassword())).thenReturn(CompletableFuture.completedFuture("encodedPassword"));
+        when(userRepository.insert(any(User.class))).thenThrow(new DuplicateKeyException("E11000 duplicate key"));
 
-        userService.registerUser(userDto);
+        try {
+            userService.registerUser(userDto).join();
+            fail("Expected a conflict");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof ResponseStatusException);
+            assertEquals(HttpStatus.CONFLICT, ((ResponseStatusException) e.getCause()).getStatus());
+        }
     }
 
     @Test
@@ -116,9 +138,9 @@ public class UserServiceTest {
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
         when(userRepository.save(any(User.class))).thenReturn(updatedUser);
-        when(passwordEncoder.encode(userDto.getPassword())).thenReturn("encodedPassword");
+        when(passwordHasher.encode(userDto.getPassword())).thenReturn(CompletableFuture.completedFuture("encodedPassword"));
 
-        User result = userService.updateUser(userId, userDto);
+        User result = userService.updateUser(userId, userDto).join();
 
         assertNotNull(result);
         assertEquals(updatedUser.getId(), result.getId());
@@ -126,7 +148,7 @@ public class UserServiceTest {
 
         verify(userRepository, times(1)).findById(userId);
         verify(userRepository, times(1)).save(any(User.class));
-        verify(passwordEncoder, times(1)).encode(userDto.getPassword());
+        verify(passwordHasher, times(1)).encode(userDto.getPassword());
     }
 
     @Test(expected = RuntimeException.class)
@@ -148,5 +170,34 @@ public class UserServiceTest {
         userService.deleteUser(userId);
 
         verify(userRepository, times(1)).deleteById(userId);
+        verify(refreshTokenService, times(1)).revokeAll(userId);
+    }
+
+    @Test
+    public void resolveIds_KnownUsernames_ReturnsIdsInOrder() {
+        when(userRepository.findByUsernameIn(Arrays.asList("bob", "alice")))
+                .thenReturn(Arrays.asList(user("1", "alice"), user("2", "bob")));
+
+        assertEquals(Arrays.asList("2", "1"), userService.resolveIds(Arrays.asList("bob", "alice")));
+    }
+
+    @Test
+    public void resolveIds_UnknownUsername_ThrowsNotFound() {
+        when(userRepository.findByUsernameIn(Arrays.asList("alice", "nobody")))
+                .thenReturn(Collections.singletonList(user("1", "alice")));
+
+        try {
+            userService.resolveIds(Arrays.asList("alice", "nobody"));
+            fail("Expected ResponseStatusException");
+        } catch (ResponseStatusException e) {
+            assertEquals(HttpStatus.NOT_FOUND, e.getStatus());
+        }
+    }
+
+    private static User user(String id, String username) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        return user;
     }
 }